@@ -3,6 +3,7 @@ package se.lannstrom.chesssensei;
 import se.lannstrom.chesssensei.model.Board;
 import se.lannstrom.chesssensei.model.Board.ChessColor;
 import se.lannstrom.chesssensei.model.Board.GameResult;
+import se.lannstrom.chesssensei.model.PositionHistory;
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Context;
@@ -44,6 +45,12 @@ public class BoardActivity extends Activity implements SelectionDoneCallback {
 			Board savedBoard = (Board) savedInstanceState.getParcelable("board");
 			if (savedBoard != null) {
 				boardView.setBoard(savedBoard);
+
+				PositionHistory history = (PositionHistory)
+						savedInstanceState.getParcelable("history");
+				if (history != null) {
+					boardView.setPositionHistory(history);
+				}
 			}
 		}
 	}
@@ -137,6 +144,7 @@ public class BoardActivity extends Activity implements SelectionDoneCallback {
 	protected void onSaveInstanceState(Bundle outState) {
 		super.onSaveInstanceState(outState);
 		outState.putParcelable("board", boardView.getBoard());
+		outState.putParcelable("history", boardView.getPositionHistory());
 	}
 	
 	@Override
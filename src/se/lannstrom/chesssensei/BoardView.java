@@ -5,9 +5,12 @@ import java.util.HashMap;
 
 import se.lannstrom.chesssensei.SelectionManager.SelectionState;
 import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.BoardDiff;
 import se.lannstrom.chesssensei.model.Board.ChessColor;
 import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.PositionHistory;
 import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
+import se.lannstrom.chesssensei.model.rules.MoveCache;
 import se.lannstrom.chesssensei.model.BoardPosition;
 import se.lannstrom.chesssensei.model.ChessMove;
 import android.content.Context;
@@ -22,6 +25,9 @@ import android.view.MotionEvent;
 import android.view.View;
 
 public class BoardView extends View {
+	/* Positions to keep the legal moves of, a game rarely goes back further */
+	private static final int MOVE_CACHE_SIZE = 64;
+
 	private class GuestureDect extends GestureDetector.SimpleOnGestureListener {
 	   @Override
 	   public boolean onDown(MotionEvent e) {
@@ -49,6 +55,10 @@ public class BoardView extends View {
 	private HashMap<ChessPiece, Bitmap> scaledBitmaps = new HashMap<Board.ChessPiece, Bitmap>();
 
 	private ChessRuleStrategy chessRuleStrategy;
+	/* Squares changed by the last move */
+	private BoardDiff boardDiff = new BoardDiff();
+	/* Positions of the game so far, for repetitions */
+	private PositionHistory positionHistory;
 
 	/**
 	 * Listeners to inform when the current player changes
@@ -74,10 +84,13 @@ public class BoardView extends View {
 
 		rect = new Rect();
 		board = Board.createStartingBoard();
+		positionHistory = new PositionHistory(board);
 
-		selectionManager = new SelectionManager(this, ChessColor.WHITE, board);
-		selectionManager.setSelectionState(SelectionState.FROM);
 		chessRuleStrategy = new ChessRuleStrategy();
+		chessRuleStrategy.setMoveCache(new MoveCache(MOVE_CACHE_SIZE));
+
+		selectionManager = new SelectionManager(this, ChessColor.WHITE, board, chessRuleStrategy);
+		selectionManager.setSelectionState(SelectionState.FROM);
 		informActiveColorListeners(board.getActive());
 	}
 	
@@ -97,14 +110,40 @@ public class BoardView extends View {
 
 	public void doMove() {
 		ChessMove move = selectionManager.buildMove();
-		chessRuleStrategy.doMove(board, move);
+		/* Repaint the moved pieces and the squares that are no longer highlighted */
+		long dirty = selectionManager.getHighlightedSquares();
+		if (chessRuleStrategy.doMove(board, move, boardDiff)) {
+			positionHistory.add(board.getZobristKey());
+			dirty |= boardDiff.getChangedSquares();
+		}
 		selectionManager.reset();
 
 		ChessColor active = board.getActive();
 		selectionManager.setColor(active);
 		informActiveColorListeners(active);
 
-		invalidate();
+		invalidateSquares(dirty);
+	}
+
+	/**
+	 * Invalidate the screen area of the squares in the bitboard squares
+	 *
+	 * @param squares
+	 */
+	private void invalidateSquares(long squares) {
+		while (squares != 0) {
+			int square = Long.numberOfTrailingZeros(squares);
+			squares &= squares - 1;
+
+			int i = square & 7;
+			int j = square >>> 3;
+			if (inverted) {
+				j = 7 - j;
+			}
+			int left = getPaddingLeft() + i * squareDiag;
+			int top = getPaddingTop() + j * squareDiag;
+			invalidate(left, top, left + squareDiag, top + squareDiag);
+		}
 	}
 
 	public double getRelativeX(MotionEvent e) {
@@ -139,9 +178,21 @@ public class BoardView extends View {
 
 	public void setBoard(Board b) {
 		board = b;
+		positionHistory = new PositionHistory(b);
 		invalidate();
 	}
 
+	public PositionHistory getPositionHistory() {
+		return positionHistory;
+	}
+
+	/**
+	 * Set the positions leading up to the board, the board last
+	 */
+	public void setPositionHistory(PositionHistory history) {
+		positionHistory = history;
+	}
+
 	@Override
 	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
 		super.onSizeChanged(w, h, oldw, oldh);
@@ -251,7 +302,7 @@ public class BoardView extends View {
 	 * @return a GameResult if the game is over, null otherwise.
 	 */
 	public Board.GameResult getResult() {
-		return chessRuleStrategy.getResults(board);
+		return chessRuleStrategy.getResults(board, positionHistory);
 	}
 
 	/**
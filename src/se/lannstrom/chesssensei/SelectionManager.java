@@ -1,7 +1,5 @@
 package se.lannstrom.chesssensei;
 
-import java.util.List;
-
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
@@ -14,6 +12,8 @@ import se.lannstrom.chesssensei.model.Board;
 import se.lannstrom.chesssensei.model.Board.ChessColor;
 import se.lannstrom.chesssensei.model.Board.ChessPiece;
 import se.lannstrom.chesssensei.model.ChessMove.PromotionPiece;
+import se.lannstrom.chesssensei.model.IntMoveList;
+import se.lannstrom.chesssensei.model.PackedMove;
 import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
 import se.lannstrom.chesssensei.model.BoardPosition;
 import se.lannstrom.chesssensei.model.ChessMove;
@@ -34,17 +34,27 @@ public class SelectionManager {
 
 	private SelectionState selectionState;
 	private Board board;
-	private ChessRuleStrategy chessRuleStrategy = new ChessRuleStrategy();
+	private ChessRuleStrategy chessRuleStrategy;
 	private int[][] moves = new int[8][8];
 
+	/* All valid moves in the current position, packed with PackedMove */
+	private IntMoveList validMoves = new IntMoveList();
+
 	private SelectionDoneCallback doneCallback;
 
 	private boolean disabled;
 
-	public SelectionManager(BoardView bv, ChessColor col, Board board) {
+	/**
+	 * @param bv
+	 * @param col
+	 * @param board
+	 * @param crs shared with the view so moves generated by either are cached once
+	 */
+	public SelectionManager(BoardView bv, ChessColor col, Board board, ChessRuleStrategy crs) {
 		boardView = bv;
 		color = col;
 		this.board = board;
+		chessRuleStrategy = crs;
 	}
 
 	public ChessColor getColor() {
@@ -96,17 +106,17 @@ public class SelectionManager {
 
 	private void selectTo(int x, int y) {
 		if (moves[x][y] == 1) {
-			to = new BoardPosition(x, y);
+			to = BoardPosition.get(x, y);
 			done();
 		} else if (board.isMineAt(x, y, color)) {
-			from = new BoardPosition(x, y);
+			from = BoardPosition.get(x, y);
 			updateMovesSelected();
 		}
 	}
 
 	private void selectFrom(int x, int y) {
 		if (board.isMineAt(x, y, color)) {
-			from = new BoardPosition(x, y);
+			from = BoardPosition.get(x, y);
 			updateMovesSelected();
 			setSelectionState(SelectionState.TO);
 		}
@@ -136,13 +146,17 @@ public class SelectionManager {
 	}
 
 	private void updateMovesSelected() {
-		List<ChessMove> valid =
-				chessRuleStrategy.getValidMoves(board, from, board.getActive());
+		/* A lookup in the move cache when the position has been seen */
+		chessRuleStrategy.getAllValidMoves(board, validMoves);
+
 		zeroMoves();
-		for (ChessMove m : valid) {
-			BoardPosition to = m.getTo();
-			if (to != null) {
-				moves[to.getX()][to.getY()] = 1;
+		/* Castling is packed as a king move, so it is marked too */
+		int square = from.getIndex();
+		for (int i = 0; i < validMoves.size(); i++) {
+			int m = validMoves.get(i);
+			if (PackedMove.getFrom(m) == square) {
+				int to = PackedMove.getTo(m);
+				moves[to & 7][to >>> 3] = 1;
 			}
 		}
 	}
@@ -165,6 +179,27 @@ public class SelectionManager {
 		return moves[x][y] == 1;
 	}
 
+	/**
+	 * Returns a bitboard with the squares drawn as selected, the from square
+	 * and the valid move targets, see {@link Board#squareBit(int, int)}
+	 *
+	 * @return
+	 */
+	public long getHighlightedSquares() {
+		long squares = 0;
+		if (from != null) {
+			squares |= Board.squareBit(from.getX(), from.getY());
+		}
+		for (int x = 0; x < 8; x++) {
+			for (int y = 0; y < 8; y++) {
+				if (moves[x][y] == 1) {
+					squares |= Board.squareBit(x, y);
+				}
+			}
+		}
+		return squares;
+	}
+
 	/**
 	 * Do we need to prompt for which piece the user wants to promote to?
 	 */
@@ -0,0 +1,171 @@
+package se.lannstrom.chesssensei.model;
+
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.Board.PieceType;
+import se.lannstrom.chesssensei.model.rules.AttackTables;
+
+/**
+ * The squares attacked by each color and by how many pieces, kept up to date
+ * by the {@link Board} it belongs to, see {@link Board#setAttackMapsEnabled(boolean)}.
+ *
+ * A change at a square only changes the attacks of the piece on it and of the
+ * sliders that see it, so only those are taken away before the change and
+ * added back after it.
+ *
+ * @author x1x
+ *
+ */
+public class AttackMap {
+	/* Squares attacked by the piece at each square, 0 if empty */
+	private long[] attacksFrom = new long[64];
+	/* Number of attackers of each square by color ordinal */
+	private byte[][] counts = new byte[ChessColor.values().length][64];
+	/* Squares with at least one attacker by color ordinal */
+	private long[] attacked = new long[ChessColor.values().length];
+
+	AttackMap(Board b) {
+		long occupied = b.getOccupied();
+		while (occupied != 0) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+			addAttacks(b, square);
+		}
+	}
+
+	AttackMap(AttackMap other) {
+		System.arraycopy(other.attacksFrom, 0, attacksFrom, 0, attacksFrom.length);
+		for (int i = 0; i < counts.length; i++) {
+			System.arraycopy(other.counts[i], 0, counts[i], 0, counts[i].length);
+		}
+		System.arraycopy(other.attacked, 0, attacked, 0, attacked.length);
+	}
+
+	/**
+	 * Returns a bitboard with the squares attacked by color c
+	 *
+	 * @param c
+	 * @return
+	 */
+	public long getAttacked(ChessColor c) {
+		return attacked[c.ordinal()];
+	}
+
+	/**
+	 * Number of pieces of color c attacking square
+	 *
+	 * @param c
+	 * @param square
+	 * @return
+	 */
+	public int getAttackerCount(ChessColor c, int square) {
+		return counts[c.ordinal()][square];
+	}
+
+	/**
+	 * Squares attacked by the piece at square, 0 if it is empty
+	 *
+	 * @param square
+	 * @return
+	 */
+	public long getAttacksFrom(int square) {
+		return attacksFrom[square];
+	}
+
+	/**
+	 * Take away the attacks that a change at square may change. Called by
+	 * the board before the change.
+	 *
+	 * @param b
+	 * @param square
+	 * @return the squares to pass to {@link #afterChange(Board, int, long)}
+	 */
+	long beforeChange(Board b, int square) {
+		long sliders = getSlidersSeeing(b, square);
+		long changed = sliders | (b.getOccupied() & (1L << square));
+		long left = changed;
+		while (left != 0) {
+			int from = Long.numberOfTrailingZeros(left);
+			left &= left - 1;
+			removeAttacks(b, from);
+		}
+		return sliders;
+	}
+
+	/**
+	 * Add back the attacks taken away by {@link #beforeChange(Board, int)}.
+	 * Called by the board after the change.
+	 *
+	 * @param b
+	 * @param square
+	 * @param sliders
+	 */
+	void afterChange(Board b, int square, long sliders) {
+		long changed = sliders | (b.getOccupied() & (1L << square));
+		while (changed != 0) {
+			int from = Long.numberOfTrailingZeros(changed);
+			changed &= changed - 1;
+			addAttacks(b, from);
+		}
+	}
+
+	/* Rooks, bishops and queens of both colors with square on one of their rays */
+	private static long getSlidersSeeing(Board b, int square) {
+		long occupied = b.getOccupied();
+		long queens = b.getBitboard(ChessPiece.W_QUEEN) | b.getBitboard(ChessPiece.B_QUEEN);
+		long rooks = b.getBitboard(ChessPiece.W_ROOK) | b.getBitboard(ChessPiece.B_ROOK) | queens;
+		long bishops = b.getBitboard(ChessPiece.W_BISHOP) | b.getBitboard(ChessPiece.B_BISHOP) | queens;
+		return (AttackTables.rookAttacks(square, occupied) & rooks) |
+			   (AttackTables.bishopAttacks(square, occupied) & bishops);
+	}
+
+	private void addAttacks(Board b, int from) {
+		ChessPiece cp = b.getPieceAt(from);
+		long targets = getAttacks(cp, from, b.getOccupied());
+		attacksFrom[from] = targets;
+
+		int color = cp.getColor().ordinal();
+		byte[] colorCounts = counts[color];
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			colorCounts[to]++;
+			attacked[color] |= 1L << to;
+		}
+	}
+
+	private void removeAttacks(Board b, int from) {
+		long targets = attacksFrom[from];
+		attacksFrom[from] = 0;
+
+		int color = b.getPieceAt(from).getColor().ordinal();
+		byte[] colorCounts = counts[color];
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if (--colorCounts[to] == 0) {
+				attacked[color] &= ~(1L << to);
+			}
+		}
+	}
+
+	private static long getAttacks(ChessPiece cp, int from, long occupied) {
+		PieceType type = cp.getType();
+		switch (type) {
+		case PAWN:
+			return AttackTables.pawnAttacks(cp.getColor(), from);
+		case KNIGHT:
+			return AttackTables.knightAttacks(from);
+		case BISHOP:
+			return AttackTables.bishopAttacks(from, occupied);
+		case ROOK:
+			return AttackTables.rookAttacks(from, occupied);
+		case QUEEN:
+			return AttackTables.queenAttacks(from, occupied);
+		case KING:
+			return AttackTables.kingAttacks(from);
+		default:
+			throw new IllegalArgumentException("Unknown piece type: " + type);
+		}
+	}
+}
@@ -49,17 +49,44 @@ public class Board implements Parcelable {
 		}
 
 		public boolean isColor(ChessColor c) {
-			if (c == ChessColor.BLACK) {
-				return name().startsWith("B");
-			} else {
-				return name().startsWith("W");
-			}
+			return COLORS[ordinal()] == c;
 		}
 
 		public boolean isPawn() {
-			return (this == ChessPiece.B_PAWN || this == ChessPiece.W_PAWN);
+			return TYPES[ordinal()] == PieceType.PAWN;
+		}
+
+		public ChessColor getColor() {
+			return COLORS[ordinal()];
+		}
+
+		public PieceType getType() {
+			return TYPES[ordinal()];
+		}
+
+		/**
+		 * The piece of type t and color c
+		 */
+		public static ChessPiece get(PieceType t, ChessColor c) {
+			return PIECES[c.ordinal() * PIECE_TYPES.length + t.ordinal()];
+		}
+
+		/* Looked up by ordinal, white pieces come first in the same order as PieceType */
+		private static final ChessPiece[] PIECES = values();
+		private static final PieceType[] PIECE_TYPES = PieceType.values();
+		private static final ChessColor[] COLORS = new ChessColor[PIECES.length];
+		private static final PieceType[] TYPES = new PieceType[PIECES.length];
+		static {
+			for (int i = 0; i < PIECES.length; i++) {
+				COLORS[i] = (i < PIECE_TYPES.length) ? ChessColor.WHITE : ChessColor.BLACK;
+				TYPES[i] = PIECE_TYPES[i % PIECE_TYPES.length];
+			}
 		}
 	}
+
+	public static enum PieceType {
+		PAWN, BISHOP, KNIGHT, ROOK, QUEEN, KING;
+	}
 	
 	public static enum ChessColor {
 		WHITE, BLACK;
@@ -106,6 +133,18 @@ public class Board implements Parcelable {
 		public static boolean isQueenSide(Castle castling) {
 			return castling == B_QUEENSIDE || castling == W_QUEENSIDE;
 		}
+
+		/**
+		 * Returns the bit representing this castling in a castle rights mask
+		 * @return
+		 */
+		public int getMask() {
+			if (this == NONE) {
+				return 0;
+			} else {
+				return 1 << (ordinal() - 1);
+			}
+		}
 	}
 	
 	public static enum GameResult {
@@ -119,50 +158,105 @@ public class Board implements Parcelable {
 			}
 		}
 	}
+
+	/**
+	 * Why a game ended
+	 */
+	public static enum Termination {
+		CHECKMATE, STALEMATE, FIFTY_MOVE_RULE, SEVENTY_FIVE_MOVE_RULE,
+		THREEFOLD_REPETITION, FIVEFOLD_REPETITION, INSUFFICIENT_MATERIAL;
+
+		/**
+		 * The result when the game ended this way with color c to move
+		 */
+		public GameResult getResult(ChessColor c) {
+			if (this == CHECKMATE) {
+				return GameResult.winner(ChessColor.getOpponent(c));
+			} else {
+				return GameResult.DRAW;
+			}
+		}
+	}
 	
+	private static final BoardPosition WHITE_KING_START = BoardPosition.get("E1");
+	private static final BoardPosition BLACK_KING_START = BoardPosition.get("E8");
+
+	private static final ChessPiece[] PIECES = ChessPiece.values();
+
 	private int size = 8;
-	private ChessPiece[][] board;
+	/*
+	 * The squares indexed y * 8 + x, see BoardPosition#getIndex(). Holds the
+	 * ordinal + 1 of the chess piece on the square or 0 if it is empty.
+	 */
+	private byte[] squares = new byte[64];
+	/*
+	 * Bitboards kept in sync with board. Bit y * 8 + x is set when the
+	 * square (x, y) is occupied, i.e. bit 0 is A8 and bit 63 is H1.
+	 */
+	private long[] pieceBitboards = new long[ChessPiece.values().length];
+	private long[] colorBitboards = new long[ChessColor.values().length];
+	/*
+	 * The squares of the pieces of each color in no particular order, the
+	 * first pieceCounts[color] are used. listIndex is the index of the
+	 * piece at a square in its list so it can be removed right away.
+	 */
+	private byte[][] pieceLists = new byte[ChessColor.values().length][64];
+	private int[] pieceCounts = new int[ChessColor.values().length];
+	private byte[] listIndex = new byte[64];
+	/* King square by color ordinal, -1 if there is no king */
+	private int[] kingSquares = { -1, -1 };
 	private ChessColor active;
-	private ArrayList<Castle> availableCastle = new ArrayList<Castle>();
+	/* Available castling as a mask of Castle#getMask() bits */
+	private int castleRights;
 	private BoardPosition enPassantTarget;
 	private int halfMoveCount;
 	private int fullMoveCount;
+	/* Zobrist key of the position without the en passant target, updated by every mutator */
+	private long zobristKey;
+	/* Attacked squares of both colors, null unless enabled */
+	private AttackMap attackMap;
+	/* Changes since clearChanges(), see BoardDiff. Not copied. */
+	private long changedSquares;
+	private int changedState;
 	
 	public Board(Board other) {
 		size = other.size;
-		/* Copy board */
-		board = new ChessPiece[other.size][other.size];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				board[i][j] = other.board[i][j];
-			}
+		System.arraycopy(other.squares, 0, squares, 0, squares.length);
+		System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+		System.arraycopy(other.colorBitboards, 0, colorBitboards, 0, colorBitboards.length);
+		for (int i = 0; i < pieceLists.length; i++) {
+			System.arraycopy(other.pieceLists[i], 0, pieceLists[i], 0, other.pieceCounts[i]);
 		}
+		System.arraycopy(other.pieceCounts, 0, pieceCounts, 0, pieceCounts.length);
+		System.arraycopy(other.listIndex, 0, listIndex, 0, listIndex.length);
+		System.arraycopy(other.kingSquares, 0, kingSquares, 0, kingSquares.length);
 		active = other.active;
-		availableCastle = new ArrayList<Board.Castle>();
-		availableCastle.addAll(other.availableCastle);
+		castleRights = other.castleRights;
 		enPassantTarget = other.enPassantTarget;
 		halfMoveCount = other.halfMoveCount;
 		fullMoveCount = other.fullMoveCount;
+		zobristKey = other.zobristKey;
+		if (other.attackMap != null) {
+			attackMap = new AttackMap(other.attackMap);
+		}
 	}
 	
 	public Board() {
-		board = new ChessPiece[8][8];
 	}
 	
 	public static Board createStartingBoard() {
 		Board b = new Board();
 		b.active = ChessColor.WHITE;
 		
-		b.availableCastle.add(Castle.W_KINGSIDE);
-		b.availableCastle.add(Castle.B_KINGSIDE);
-		b.availableCastle.add(Castle.W_QUEENSIDE);
-		b.availableCastle.add(Castle.B_QUEENSIDE);
+		b.castleRights = Castle.W_KINGSIDE.getMask() | Castle.B_KINGSIDE.getMask() |
+						 Castle.W_QUEENSIDE.getMask() | Castle.B_QUEENSIDE.getMask();
 		
 		b.enPassantTarget = null;
 		b.halfMoveCount = 0;
 		b.fullMoveCount = 0;
 		
 		b.startingPosition();
+		b.zobristKey = b.computeZobristKey();
 		
 		return b;
 	}
@@ -172,39 +266,274 @@ public class Board implements Parcelable {
 	}
 
 	public ChessPiece getPieceAt(int x, int y) {
-		return board[x][y];
+		return getPieceAt(y * 8 + x);
 	}
 	
 	public ChessPiece getPieceAt(BoardPosition bp) {
 		return getPieceAt(bp.getX(), bp.getY());
 	}
+
+	/**
+	 * Get the piece at the square with index square, see {@link BoardPosition#getIndex()}
+	 * 
+	 * @param square
+	 * @return
+	 */
+	public ChessPiece getPieceAt(int square) {
+		int code = squares[square];
+		if (code == 0) {
+			return null;
+		}
+		return PIECES[code - 1];
+	}
 	
 	public void setPieceAt(int x, int y, ChessPiece p) {
-		board[x][y] = p;
+		ChessPiece old = getPieceAt(x, y);
+		long bit = squareBit(x, y);
+		int square = y * 8 + x;
+		long sliders = 0;
+		if (attackMap != null) {
+			sliders = attackMap.beforeChange(this, square);
+		}
+		zobristKey ^= Zobrist.piece(old, x, y) ^ Zobrist.piece(p, x, y);
+		if (old != null) {
+			pieceBitboards[old.ordinal()] &= ~bit;
+			colorBitboards[old.getColor().ordinal()] &= ~bit;
+			removeFromList(old.getColor().ordinal(), square);
+		}
+		if (p != null) {
+			pieceBitboards[p.ordinal()] |= bit;
+			colorBitboards[p.getColor().ordinal()] |= bit;
+			addToList(p.getColor().ordinal(), square);
+		}
+		if (p == null) {
+			squares[square] = 0;
+		} else {
+			squares[square] = (byte) (p.ordinal() + 1);
+		}
+
+		if (isKing(old) || isKing(p)) {
+			updateKingSquares();
+		}
+		if (attackMap != null) {
+			attackMap.afterChange(this, square, sliders);
+		}
+		if (old != p) {
+			changedSquares |= bit;
+		}
+	}
+
+	/**
+	 * Fill in out with what changed since the last call to
+	 * {@link #clearChanges()} or since the board was created
+	 * 
+	 * @param out
+	 */
+	public void getChanges(BoardDiff out) {
+		out.changedSquares = changedSquares;
+		out.changedState = changedState;
+	}
+
+	public void clearChanges() {
+		changedSquares = 0;
+		changedState = 0;
+	}
+
+	private void stateChanged(boolean changed, int field) {
+		if (changed) {
+			changedState |= field;
+		}
+	}
+
+	private void addToList(int color, int square) {
+		listIndex[square] = (byte) pieceCounts[color];
+		pieceLists[color][pieceCounts[color]++] = (byte) square;
+	}
+
+	private void removeFromList(int color, int square) {
+		/* Move the last piece of the list to the removed one's place */
+		int i = listIndex[square];
+		int last = pieceLists[color][--pieceCounts[color]];
+		pieceLists[color][i] = (byte) last;
+		listIndex[last] = (byte) i;
+	}
+
+	private static boolean isKing(ChessPiece cp) {
+		return cp != null && cp.getType() == PieceType.KING;
+	}
+
+	private void updateKingSquares() {
+		long white = pieceBitboards[ChessPiece.W_KING.ordinal()];
+		long black = pieceBitboards[ChessPiece.B_KING.ordinal()];
+		kingSquares[ChessColor.WHITE.ordinal()] = (white == 0) ? -1 : Long.numberOfTrailingZeros(white);
+		kingSquares[ChessColor.BLACK.ordinal()] = (black == 0) ? -1 : Long.numberOfTrailingZeros(black);
+	}
+
+	/**
+	 * Number of pieces of color c on the board
+	 * 
+	 * @param c
+	 * @return
+	 */
+	public int getPieceCount(ChessColor c) {
+		return pieceCounts[c.ordinal()];
+	}
+
+	/**
+	 * The square of the i:th piece of color c, 0 <= i < getPieceCount(c).
+	 * The order changes when pieces are added or removed.
+	 * 
+	 * @param c
+	 * @param i
+	 * @return
+	 */
+	public int getPieceSquare(ChessColor c, int i) {
+		return pieceLists[c.ordinal()][i];
+	}
+
+	/**
+	 * The square of the king of color c or -1 if there is none
+	 * 
+	 * @param c
+	 * @return
+	 */
+	public int getKingSquare(ChessColor c) {
+		return kingSquares[c.ordinal()];
+	}
+	
+	/**
+	 * Keep track of the squares attacked by each color, see {@link AttackMap}.
+	 * Off by default as it makes every change of a piece more expensive.
+	 * Copies of the board keep the setting, it is not parceled.
+	 * 
+	 * @param enabled
+	 */
+	public void setAttackMapsEnabled(boolean enabled) {
+		if (!enabled) {
+			attackMap = null;
+		} else if (attackMap == null) {
+			attackMap = new AttackMap(this);
+		}
+	}
+
+	public boolean isAttackMapsEnabled() {
+		return attackMap != null;
+	}
+
+	/**
+	 * The attack maps of the board or null if they aren't enabled
+	 * 
+	 * @return
+	 */
+	public AttackMap getAttackMap() {
+		return attackMap;
 	}
 	
 	public void setPieceAt(BoardPosition bp, ChessPiece cp) {
 		setPieceAt(bp.getX(), bp.getY(), cp);
 	}
+
+	public void setPieceAt(int square, ChessPiece cp) {
+		setPieceAt(square & 7, square >>> 3, cp);
+	}
 	
+	/**
+	 * Returns the bit representing the square (x, y) in the bitboards
+	 * 
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public static long squareBit(int x, int y) {
+		return 1L << (y * 8 + x);
+	}
+
+	/**
+	 * Returns a bitboard with all the squares occupied by the chess piece cp
+	 * 
+	 * @param cp
+	 * @return
+	 */
+	public long getBitboard(ChessPiece cp) {
+		return pieceBitboards[cp.ordinal()];
+	}
+
+	/**
+	 * Returns a bitboard with all the squares occupied by pieces of color c
+	 * 
+	 * @param c
+	 * @return
+	 */
+	public long getColorBitboard(ChessColor c) {
+		return colorBitboards[c.ordinal()];
+	}
+
+	/**
+	 * Returns a bitboard with all the occupied squares
+	 * 
+	 * @return
+	 */
+	public long getOccupied() {
+		return colorBitboards[0] | colorBitboards[1];
+	}
+
 	public ChessColor getActive() {
 		return active;
 	}
 
 	public void setActive(ChessColor active) {
+		stateChanged(this.active != active, BoardDiff.ACTIVE);
+		zobristKey ^= Zobrist.active(this.active) ^ Zobrist.active(active);
 		this.active = active;
 	}
 
+	/**
+	 * Returns a new list with the available castling. Changing the list
+	 * doesn't change the board, use {@link #addAvailableCastle(Castle)} and
+	 * {@link #removeAvailableCastle(Castle)}.
+	 * 
+	 * @return
+	 */
 	public ArrayList<Castle> getAvailableCastle() {
-		return availableCastle;
+		ArrayList<Castle> available = new ArrayList<Castle>();
+		for (Castle c : Castle.values()) {
+			if (isCastleAvailable(c)) {
+				available.add(c);
+			}
+		}
+		return available;
+	}
+
+	public boolean isCastleAvailable(Castle c) {
+		return (castleRights & c.getMask()) != 0;
 	}
 	
 	public void addAvailableCastle(Castle c) {
-		availableCastle.add(c);
+		setCastleRights(castleRights | c.getMask());
 	}
 	
 	public void removeAvailableCastle(Castle c) {
-		availableCastle.remove(c);
+		setCastleRights(castleRights & ~c.getMask());
+	}
+
+	/**
+	 * Returns the available castling as a mask of {@link Castle#getMask()} bits
+	 * 
+	 * @return
+	 */
+	public int getCastleRights() {
+		return castleRights;
+	}
+
+	/**
+	 * Make exactly the castling in mask available
+	 * 
+	 * @param mask
+	 */
+	public void setCastleRights(int mask) {
+		stateChanged(castleRights != mask, BoardDiff.CASTLE_RIGHTS);
+		zobristKey ^= Zobrist.castleRights(castleRights) ^ Zobrist.castleRights(mask);
+		castleRights = mask;
 	}
 
 	public BoardPosition getEnPassantTarget() {
@@ -212,14 +541,47 @@ public class Board implements Parcelable {
 	}
 
 	public void setEnPassantTarget(BoardPosition enPassantTarget) {
+		boolean changed = (this.enPassantTarget == null) ? enPassantTarget != null :
+						  !this.enPassantTarget.equals(enPassantTarget);
+		stateChanged(changed, BoardDiff.EN_PASSANT_TARGET);
 		this.enPassantTarget = enPassantTarget;
 	}
 
+	/**
+	 * Check if a pawn of the active color stands next to the pawn that just
+	 * made a double step, so that it may capture en passant. Pins are not
+	 * looked at.
+	 * 
+	 * @return
+	 */
+	public boolean isEnPassantPossible() {
+		if (enPassantTarget == null || active == null) {
+			return false;
+		}
+
+		/* White moves towards y = 0 so the pawn to capture is below the target */
+		int x = enPassantTarget.getX();
+		int y = enPassantTarget.getY() + (active == ChessColor.WHITE ? 1 : -1);
+		if (y < 0 || y >= size) {
+			return false;
+		}
+
+		long neighbours = 0;
+		if (x > 0) {
+			neighbours |= squareBit(x - 1, y);
+		}
+		if (x < size - 1) {
+			neighbours |= squareBit(x + 1, y);
+		}
+		return (getBitboard(ChessPiece.get(PieceType.PAWN, active)) & neighbours) != 0;
+	}
+
 	public int getHalfMoveCount() {
 		return halfMoveCount;
 	}
 
 	public void setHalfMoveCount(int halfMoveCount) {
+		stateChanged(this.halfMoveCount != halfMoveCount, BoardDiff.HALF_MOVE_COUNT);
 		this.halfMoveCount = halfMoveCount;
 	}
 
@@ -228,6 +590,7 @@ public class Board implements Parcelable {
 	}
 
 	public void setFullMoveCount(int fullMoveCount) {
+		stateChanged(this.fullMoveCount != fullMoveCount, BoardDiff.FULL_MOVE_COUNT);
 		this.fullMoveCount = fullMoveCount;
 	}
 
@@ -240,7 +603,7 @@ public class Board implements Parcelable {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < 8; i++) {
 			for (int j = 0; j < 8; j++) {
-				ChessPiece cp = board[j][i];
+				ChessPiece cp = getPieceAt(j, i);
 				if (cp == null) {
 					sb.append(".");
 				} else {
@@ -261,7 +624,7 @@ public class Board implements Parcelable {
 	
 	private String getCastleString() {
 		StringBuilder sb = new StringBuilder();
-		for (Castle c : availableCastle) {
+		for (Castle c : getAvailableCastle()) {
 			sb.append(c.name());
 			sb.append(" ");
 		}
@@ -312,26 +675,51 @@ public class Board implements Parcelable {
 
 	public void toggleActive() {
 		if (active == ChessColor.BLACK) {
-			active = ChessColor.WHITE; 
+			setActive(ChessColor.WHITE);
 		} else {
-			active = ChessColor.BLACK;
+			setActive(ChessColor.BLACK);
+		}
+	}
+
+	/**
+	 * Returns the Zobrist key of the position. Covers the pieces, the active
+	 * color, the available castling and the en passant target but not the
+	 * move counters. The en passant target only counts if
+	 * {@link #isEnPassantPossible()}, otherwise the position is the same as
+	 * without it, e.g. for repetitions.
+	 * 
+	 * The key is updated incrementally so this is O(1).
+	 * 
+	 * @return
+	 */
+	public long getZobristKey() {
+		if (enPassantTarget == null) {
+			return zobristKey;
+		}
+		/* Depends on the pawns too, so it isn't kept in zobristKey */
+		return isEnPassantPossible() ? zobristKey ^ Zobrist.enPassant(enPassantTarget) : zobristKey;
+	}
+
+	/**
+	 * Calculate the Zobrist key from scratch, the en passant target excluded
+	 * as in zobristKey
+	 * 
+	 * @return
+	 */
+	private long computeZobristKey() {
+		long key = Zobrist.active(active) ^ Zobrist.castleRights(castleRights);
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				key ^= Zobrist.piece(getPieceAt(i, j), i, j);
+			}
 		}
+		return key;
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((active == null) ? 0 : active.hashCode());
-		result = prime * result
-				+ ((availableCastle == null) ? 0 : availableCastle.hashCode());
-		result = prime * result + Arrays.hashCode(board);
-		result = prime * result
-				+ ((enPassantTarget == null) ? 0 : enPassantTarget.hashCode());
-		result = prime * result + fullMoveCount;
-		result = prime * result + halfMoveCount;
-		result = prime * result + size;
-		return result;
+		long key = getZobristKey();
+		return (int) (key ^ (key >>> 32));
 	}
 
 	@Override
@@ -345,12 +733,9 @@ public class Board implements Parcelable {
 		Board other = (Board) obj;
 		if (active != other.active)
 			return false;
-		if (availableCastle == null) {
-			if (other.availableCastle != null)
-				return false;
-		} else if (!availableCastle.equals(other.availableCastle))
+		if (castleRights != other.castleRights)
 			return false;
-		if (!Arrays.deepEquals(board, other.board))
+		if (!Arrays.equals(squares, other.squares))
 			return false;
 		if (enPassantTarget == null) {
 			if (other.enPassantTarget != null)
@@ -367,15 +752,23 @@ public class Board implements Parcelable {
 	}
 
 	public boolean isEmptyAt(int x, int y) {
-		return getPieceAt(x, y) == null;
+		return (getOccupied() & squareBit(x, y)) == 0;
 	}
 	
 	public boolean isEmptyAt(BoardPosition bp) {
-		return getPieceAt(bp) == null;
+		return isEmptyAt(bp.getX(), bp.getY());
 	}
 	
 	public boolean isEmptyAt(String bp) {
-		return getPieceAt(new BoardPosition(bp)) == null;
+		return isEmptyAt(BoardPosition.get(bp));
+	}
+
+	public boolean isEmptyAt(int square) {
+		return (getOccupied() & (1L << square)) == 0;
+	}
+
+	public boolean isMineAt(int square, ChessColor c) {
+		return (getColorBitboard(c) & (1L << square)) != 0;
 	}
 
 	/**
@@ -387,35 +780,23 @@ public class Board implements Parcelable {
 	 * @return
 	 */
 	public boolean isOpponentAt(BoardPosition bp, ChessColor c) {
-		ChessPiece cp = getPieceAt(bp);
-		if (cp != null) {
-			return cp.isColor(ChessColor.getOpponent(c));
-		} else {
-			return false;
-		}
+		return isOpponentAt(bp.getX(), bp.getY(), c);
 	}
 	
 	public boolean isOpponentAt(int x, int y, ChessColor c) {
-		BoardPosition bp = new BoardPosition(x, y);
-		return isOpponentAt(bp, c);
+		return isMineAt(x, y, ChessColor.getOpponent(c));
 	}
 
 	public boolean isEmptyOrOpponent(BoardPosition bp, ChessColor c) {
-		return isEmptyAt(bp) || isOpponentAt(bp, c); 
+		return isEmptyOrOpponent(bp.getX(), bp.getY(), c);
 	}
 	
 	public boolean isEmptyOrOpponent(int x, int y, ChessColor c) {
-		BoardPosition bp = new BoardPosition(x, y);
-		return isEmptyAt(bp) || isOpponentAt(bp, c); 
+		return !isMineAt(x, y, c);
 	}
 	
 	public boolean isMineAt(int x, int y, ChessColor c) {
-		ChessPiece cp = getPieceAt(x, y);
-		if (cp != null) {
-			return cp.isColor(c);
-		} else {
-			return false;
-		}
+		return (getColorBitboard(c) & squareBit(x, y)) != 0;
 	}
 
 	/**
@@ -425,20 +806,11 @@ public class Board implements Parcelable {
 	 * @return
 	 */
 	public BoardPosition findKing(ChessColor c) {
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (c == ChessColor.WHITE) {
-					if (board[i][j] == ChessPiece.W_KING) {
-						return new BoardPosition(i, j);
-					}
-				} else {
-					if (board[i][j] == ChessPiece.B_KING) {
-						return new BoardPosition(i, j);
-					}
-				}
-			}
+		int square = getKingSquare(c);
+		if (square == -1) {
+			return null;
 		}
-		return null;
+		return BoardPosition.get(square);
 	}
 
 	/**
@@ -456,9 +828,9 @@ public class Board implements Parcelable {
 
 	public static BoardPosition getStartingKingPos(ChessColor c) {
 		if (c == ChessColor.WHITE)
-			return new BoardPosition("E1");
+			return WHITE_KING_START;
 		else
-			return new BoardPosition("E8");
+			return BLACK_KING_START;
 	}
 
 	public boolean isKingAt(BoardPosition bp, ChessColor c) {
@@ -470,13 +842,17 @@ public class Board implements Parcelable {
 	}
 
 	public void setEmptyAt(int x, int y) {
-		board[x][y] = null;
+		setPieceAt(x, y, null);
 	}
 
 	public void setEmptyAt(BoardPosition bp) {
 		setEmptyAt(bp.getX(), bp.getY());
 	}
 
+	public void setEmptyAt(int square) {
+		setPieceAt(square, null);
+	}
+
 	@Override
 	public int describeContents() {
 		return 0;
@@ -485,11 +861,9 @@ public class Board implements Parcelable {
 	@Override
 	public void writeToParcel(Parcel out, int flags) {
 		out.writeInt(size);
-		for (int i = 0; i < 8; i++) {
-			out.writeArray(board[i]);
-		}
+		out.writeByteArray(squares);
 		out.writeSerializable(active);
-		out.writeList(availableCastle);
+		out.writeInt(castleRights);
 		if (enPassantTarget != null) {
 			out.writeString(enPassantTarget.toString());
 		} else {
@@ -510,26 +884,31 @@ public class Board implements Parcelable {
 	};
 	
     private Board(Parcel in) {
+    	this();
     	size = in.readInt();
-    	for (int i = 0; i < 8; i++) {
-    		board[i] = (ChessPiece[]) in.readArray(null);
+    	byte[] read = in.createByteArray();
+    	for (int i = 0; i < read.length; i++) {
+    		if (read[i] != 0) {
+    			setPieceAt(i, PIECES[read[i] - 1]);
+    		}
     	}
     	active = (ChessColor) in.readSerializable();
-    	in.readList(availableCastle, null);
+    	castleRights = in.readInt();
     	String target = in.readString();
     	if (!target.equals("")) {
-    		enPassantTarget = new BoardPosition(target);
+    		enPassantTarget = BoardPosition.get(target);
     	}
     	halfMoveCount = in.readInt();
     	fullMoveCount = in.readInt();
+    	zobristKey = computeZobristKey();
     }
 
 	public void increaseHalfMoveCount() {
-		halfMoveCount++;
+		setHalfMoveCount(halfMoveCount + 1);
 	}
 
 	public void resetHalfMoveCount() {
-		halfMoveCount = 0;
+		setHalfMoveCount(0);
 	}
 
 }
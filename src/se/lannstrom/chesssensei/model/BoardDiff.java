@@ -0,0 +1,95 @@
+package se.lannstrom.chesssensei.model;
+
+/**
+ * What changed on a {@link Board}: the squares whose piece changed and which
+ * of the other state fields changed. Filled in by
+ * {@link Board#getChanges(BoardDiff)}, e.g. after a move made with
+ * {@link se.lannstrom.chesssensei.model.rules.ChessRuleStrategy#doMove(Board, ChessMove, BoardDiff)}.
+ *
+ * Can be reused.
+ *
+ * @author x1x
+ *
+ */
+public class BoardDiff {
+	/* State field bits */
+	public static final int ACTIVE = 1;
+	public static final int CASTLE_RIGHTS = 1 << 1;
+	public static final int EN_PASSANT_TARGET = 1 << 2;
+	public static final int HALF_MOVE_COUNT = 1 << 3;
+	public static final int FULL_MOVE_COUNT = 1 << 4;
+
+	/* Bit y * 8 + x is set if the square (x, y) changed */
+	long changedSquares;
+	/* Bits of the state fields that changed */
+	int changedState;
+
+	/**
+	 * Returns a bitboard with the squares whose piece changed, see
+	 * {@link Board#squareBit(int, int)}
+	 *
+	 * @return
+	 */
+	public long getChangedSquares() {
+		return changedSquares;
+	}
+
+	public boolean isSquareChanged(int square) {
+		return (changedSquares & (1L << square)) != 0;
+	}
+
+	/**
+	 * Returns the changed state fields as a mask of ACTIVE, CASTLE_RIGHTS,
+	 * EN_PASSANT_TARGET, HALF_MOVE_COUNT and FULL_MOVE_COUNT
+	 *
+	 * @return
+	 */
+	public int getChangedState() {
+		return changedState;
+	}
+
+	public boolean isStateChanged(int field) {
+		return (changedState & field) != 0;
+	}
+
+	public boolean isEmpty() {
+		return changedSquares == 0 && changedState == 0;
+	}
+
+	public void clear() {
+		changedSquares = 0;
+		changedState = 0;
+	}
+
+	/**
+	 * Copy what changed from source to target. Brings a copy of source from
+	 * before the changes up to date.
+	 *
+	 * @param source
+	 * @param target
+	 */
+	public void apply(Board source, Board target) {
+		long squares = changedSquares;
+		while (squares != 0) {
+			int square = Long.numberOfTrailingZeros(squares);
+			squares &= squares - 1;
+			target.setPieceAt(square, source.getPieceAt(square));
+		}
+
+		if (isStateChanged(ACTIVE)) {
+			target.setActive(source.getActive());
+		}
+		if (isStateChanged(CASTLE_RIGHTS)) {
+			target.setCastleRights(source.getCastleRights());
+		}
+		if (isStateChanged(EN_PASSANT_TARGET)) {
+			target.setEnPassantTarget(source.getEnPassantTarget());
+		}
+		if (isStateChanged(HALF_MOVE_COUNT)) {
+			target.setHalfMoveCount(source.getHalfMoveCount());
+		}
+		if (isStateChanged(FULL_MOVE_COUNT)) {
+			target.setFullMoveCount(source.getFullMoveCount());
+		}
+	}
+}
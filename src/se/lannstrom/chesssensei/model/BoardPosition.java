@@ -5,17 +5,65 @@ import java.util.Locale;
 /**
  * Refers to a square on a chess board. 
  * 
- * Immutable.
+ * Immutable. There is one canonical instance for each of the 64 squares,
+ * use {@link #get(int)}, {@link #get(int, int)} or {@link #get(String)}
+ * instead of the constructors to avoid allocating.
  * 
- * TODO: Implement object pool
+ * Squares are indexed y * 8 + x, i.e. 0 is A8 and 63 is H1.
  * 
  * @author x1x
  *
  */
 public class BoardPosition {
-	private int x;
-	private int y;
+	private static final BoardPosition[] SQUARES = new BoardPosition[64];
+
+	static {
+		for (int i = 0; i < SQUARES.length; i++) {
+			SQUARES[i] = new BoardPosition(i & 7, i >>> 3);
+		}
+	}
+
+	private final int x;
+	private final int y;
 	
+	/**
+	 * Returns the canonical instance of the square with index square
+	 * 
+	 * @param square
+	 * @return
+	 */
+	public static BoardPosition get(int square) {
+		return SQUARES[square];
+	}
+
+	/**
+	 * Returns the canonical instance of the square (x, y)
+	 * 
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public static BoardPosition get(int x, int y) {
+		if (!isInside(x, y)) {
+			throw new IllegalArgumentException("Outside board (" + x + ", " + y + ")");
+		}
+		return SQUARES[y * 8 + x];
+	}
+
+	/**
+	 * Returns the canonical instance of an algebraic square e.g. A1
+	 * 
+	 * @param algebraic
+	 * @return
+	 */
+	public static BoardPosition get(String algebraic) {
+		return parseAlgebraic(algebraic);
+	}
+
+	public static boolean isInside(int x, int y) {
+		return x >= 0 && y >= 0 && x < 8 && y < 8;
+	}
+
 	public BoardPosition(int x, int y) {
 		this.x = x;
 		this.y = y;
@@ -38,6 +86,15 @@ public class BoardPosition {
 		return y;
 	}
 
+	/**
+	 * Returns the square index y * 8 + x
+	 * 
+	 * @return
+	 */
+	public int getIndex() {
+		return y * 8 + x;
+	}
+
 	public static BoardPosition parseAlgebraic(String algebraic) {
 		if (algebraic.length() != 2) {
 			throw new IllegalArgumentException("Expects a two characters string e.g. A1");
@@ -64,7 +121,7 @@ public class BoardPosition {
 			throw new IllegalArgumentException("Illegal character in algebraic position " + row);
 		}
 		
-		return new BoardPosition(x, y);
+		return get(x, y);
 	}
 	
 	public String toString() {
@@ -0,0 +1,198 @@
+package se.lannstrom.chesssensei.model;
+
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+
+/**
+ * An immutable copy of a {@link Board}, safe to keep in a history or to hand
+ * to another thread.
+ *
+ * Consecutive snapshots share structure: {@link #next(Board)} only stores the
+ * squares that differ from the previous snapshot and the state words, and
+ * points back to it. Every KEYFRAME_INTERVAL plies a full copy of the squares
+ * is stored so looking up a square never walks more than that many deltas.
+ *
+ * @author x1x
+ *
+ */
+public final class BoardSnapshot {
+	/* Max number of deltas between two full copies of the squares */
+	private static final int KEYFRAME_INTERVAL = 16;
+
+	/* Piece codes as in Board, 0 for empty, ordinal + 1 otherwise */
+	private static final ChessPiece[] PIECES = ChessPiece.values();
+
+	/* Snapshot the deltas apply to, null for a keyframe */
+	private final BoardSnapshot previous;
+	/* Deltas since the last keyframe, 0 for a keyframe */
+	private final int depth;
+	/* All 64 squares for a keyframe, otherwise the changed squares */
+	private final byte[] squares;
+	/* Codes of the changed squares, null for a keyframe */
+	private final byte[] codes;
+
+	private final ChessColor active;
+	private final int castleRights;
+	private final BoardPosition enPassantTarget;
+	private final int halfMoveCount;
+	private final int fullMoveCount;
+	private final long zobristKey;
+
+	private BoardSnapshot(BoardSnapshot previous, int depth, byte[] squares, byte[] codes,
+						  Board b) {
+		this.previous = previous;
+		this.depth = depth;
+		this.squares = squares;
+		this.codes = codes;
+		active = b.getActive();
+		castleRights = b.getCastleRights();
+		enPassantTarget = b.getEnPassantTarget();
+		halfMoveCount = b.getHalfMoveCount();
+		fullMoveCount = b.getFullMoveCount();
+		zobristKey = b.getZobristKey();
+	}
+
+	/**
+	 * Snapshot of b with a full copy of the squares
+	 *
+	 * @param b
+	 * @return
+	 */
+	public static BoardSnapshot of(Board b) {
+		byte[] squares = new byte[64];
+		for (int square = 0; square < 64; square++) {
+			squares[square] = getCode(b.getPieceAt(square));
+		}
+		return new BoardSnapshot(null, 0, squares, null, b);
+	}
+
+	/**
+	 * Snapshot of b that only stores how it differs from this one. Meant for
+	 * the position after a move but works for any board.
+	 *
+	 * @param b
+	 * @return
+	 */
+	public BoardSnapshot next(Board b) {
+		if (depth + 1 >= KEYFRAME_INTERVAL) {
+			return of(b);
+		}
+
+		byte[] current = getSquares();
+		byte[] changed = new byte[64];
+		byte[] changedCodes = new byte[64];
+		int count = 0;
+		for (int square = 0; square < 64; square++) {
+			byte code = getCode(b.getPieceAt(square));
+			if (code != current[square]) {
+				changed[count] = (byte) square;
+				changedCodes[count] = code;
+				count++;
+			}
+		}
+
+		byte[] squares = new byte[count];
+		byte[] codes = new byte[count];
+		System.arraycopy(changed, 0, squares, 0, count);
+		System.arraycopy(changedCodes, 0, codes, 0, count);
+		return new BoardSnapshot(this, depth + 1, squares, codes, b);
+	}
+
+	/**
+	 * A new mutable board with the position of the snapshot
+	 *
+	 * @return
+	 */
+	public Board toBoard() {
+		Board b = new Board();
+		byte[] squares = getSquares();
+		for (int square = 0; square < 64; square++) {
+			if (squares[square] != 0) {
+				b.setPieceAt(square, PIECES[squares[square] - 1]);
+			}
+		}
+		b.setActive(active);
+		b.setCastleRights(castleRights);
+		b.setEnPassantTarget(enPassantTarget);
+		b.setHalfMoveCount(halfMoveCount);
+		b.setFullMoveCount(fullMoveCount);
+		return b;
+	}
+
+	/**
+	 * Get the piece at the square with index square, see {@link BoardPosition#getIndex()}
+	 *
+	 * @param square
+	 * @return
+	 */
+	public ChessPiece getPieceAt(int square) {
+		for (BoardSnapshot s = this; ; s = s.previous) {
+			if (s.codes == null) {
+				return getPiece(s.squares[square]);
+			}
+			for (int i = 0; i < s.squares.length; i++) {
+				if (s.squares[i] == square) {
+					return getPiece(s.codes[i]);
+				}
+			}
+		}
+	}
+
+	public ChessPiece getPieceAt(BoardPosition bp) {
+		return getPieceAt(bp.getIndex());
+	}
+
+	/**
+	 * The snapshot this one only stores the changes from, null if it stores
+	 * all squares
+	 *
+	 * @return
+	 */
+	public BoardSnapshot getPrevious() {
+		return previous;
+	}
+
+	public ChessColor getActive() {
+		return active;
+	}
+
+	public int getCastleRights() {
+		return castleRights;
+	}
+
+	public BoardPosition getEnPassantTarget() {
+		return enPassantTarget;
+	}
+
+	public int getHalfMoveCount() {
+		return halfMoveCount;
+	}
+
+	public int getFullMoveCount() {
+		return fullMoveCount;
+	}
+
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
+	/* All 64 squares, the keyframe with the deltas applied oldest first */
+	private byte[] getSquares() {
+		if (codes == null) {
+			return squares.clone();
+		}
+		byte[] all = previous.getSquares();
+		for (int i = 0; i < squares.length; i++) {
+			all[squares[i]] = codes[i];
+		}
+		return all;
+	}
+
+	private static byte getCode(ChessPiece cp) {
+		return (cp == null) ? 0 : (byte) (cp.ordinal() + 1);
+	}
+
+	private static ChessPiece getPiece(byte code) {
+		return (code == 0) ? null : PIECES[code - 1];
+	}
+}
@@ -3,6 +3,7 @@ package se.lannstrom.chesssensei.model;
 import se.lannstrom.chesssensei.model.Board.Castle;
 import se.lannstrom.chesssensei.model.Board.ChessColor;
 import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.Board.PieceType;
 
 /**
  * Represents a single chess move. E.g. RA5
@@ -13,23 +14,33 @@ public class ChessMove {
 		QUEEN, KNIGHT, ROOK, BISHOP;
 
 		public ChessPiece getChessPiece(ChessMove m) {
-			ChessColor c = m.getColor();
-			if (c == ChessColor.WHITE) {
-				return ChessPiece.valueOf("W_" + name());
-			} else {
-				return ChessPiece.valueOf("B_" + name());
-			}
+			return getChessPiece(m.getColor());
 		}
 
 		public ChessPiece getChessPiece(ChessColor c) {
-			if (c == ChessColor.WHITE) {
-				return ChessPiece.valueOf("W_" + name());
-			} else {
-				return ChessPiece.valueOf("B_" + name());
+			return PIECES[c.ordinal()][ordinal()];
+		}
+
+		/* The chess piece by color and promotion piece ordinal */
+		private static final ChessPiece[][] PIECES =
+				new ChessPiece[ChessColor.values().length][values().length];
+		static {
+			for (ChessColor c : ChessColor.values()) {
+				for (PromotionPiece pp : values()) {
+					PieceType t = PieceType.valueOf(pp.name());
+					PIECES[c.ordinal()][pp.ordinal()] = ChessPiece.get(t, c);
+				}
 			}
 		}
 	}
 
+	private static final BoardPosition E1 = BoardPosition.get("E1");
+	private static final BoardPosition G1 = BoardPosition.get("G1");
+	private static final BoardPosition C1 = BoardPosition.get("C1");
+	private static final BoardPosition E8 = BoardPosition.get("E8");
+	private static final BoardPosition G8 = BoardPosition.get("G8");
+	private static final BoardPosition C8 = BoardPosition.get("C8");
+
 	/* Ordinary movement */
 	private BoardPosition from;
 	private BoardPosition to;
@@ -54,20 +65,20 @@ public class ChessMove {
 		castling = c;
 		if (castling == Castle.W_KINGSIDE) {
 			color = ChessColor.WHITE;
-			from  = new BoardPosition("E1");
-			to    = new BoardPosition("G1");
+			from  = E1;
+			to    = G1;
 		} else if (castling == Castle.W_QUEENSIDE) {
 			color = ChessColor.WHITE;
-			from  = new BoardPosition("E1");
-			to    = new BoardPosition("C1");
+			from  = E1;
+			to    = C1;
 		} else if (castling == Castle.B_KINGSIDE) {
 			color = ChessColor.BLACK;
-			from  = new BoardPosition("E8");
-			to    = new BoardPosition("G8");
+			from  = E8;
+			to    = G8;
 		} else if (castling == Castle.B_QUEENSIDE) {
 			color = ChessColor.BLACK;
-			from  = new BoardPosition("E8");
-			to    = new BoardPosition("C8");
+			from  = E8;
+			to    = C8;
 		}
 	}
 
@@ -0,0 +1,135 @@
+package se.lannstrom.chesssensei.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of moves packed with {@link PackedMove}.
+ * 
+ * Meant to be cleared and reused, after it has grown to its working size
+ * adding moves doesn't allocate anything.
+ * 
+ * @author x1x
+ *
+ */
+public class IntMoveList {
+	private int[] moves;
+	private int size;
+
+	public IntMoveList() {
+		this(64);
+	}
+
+	public IntMoveList(int capacity) {
+		moves = new int[Math.max(capacity, 1)];
+	}
+
+	public void add(int move) {
+		if (size == moves.length) {
+			moves = Arrays.copyOf(moves, size * 2);
+		}
+		moves[size++] = move;
+	}
+
+	public int get(int i) {
+		if (i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + " Size: " + size);
+		}
+		return moves[i];
+	}
+
+	public void set(int i, int move) {
+		if (i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + " Size: " + size);
+		}
+		moves[i] = move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Drop the moves from index size and on
+	 * 
+	 * @param size
+	 */
+	public void truncate(int size) {
+		if (size < this.size) {
+			this.size = Math.max(size, 0);
+		}
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public boolean contains(int move) {
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Copy the moves to a new array of length size()
+	 * 
+	 * @return
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(moves, size);
+	}
+
+	/**
+	 * Add all moves in in
+	 * 
+	 * @param in packed moves
+	 */
+	public void addAll(int[] in) {
+		if (size + in.length > moves.length) {
+			moves = Arrays.copyOf(moves, Math.max(size + in.length, size * 2));
+		}
+		System.arraycopy(in, 0, moves, size, in.length);
+		size += in.length;
+	}
+
+	/**
+	 * Convert the moves to a list of ChessMove objects
+	 * 
+	 * @return
+	 */
+	public List<ChessMove> toChessMoves() {
+		List<ChessMove> out = new ArrayList<ChessMove>(size);
+		toChessMoves(out);
+		return out;
+	}
+
+	/**
+	 * Convert the moves to ChessMove objects and add them to out
+	 * 
+	 * @param out
+	 */
+	public void toChessMoves(List<ChessMove> out) {
+		for (int i = 0; i < size; i++) {
+			out.add(PackedMove.toChessMove(moves[i]));
+		}
+	}
+
+	/**
+	 * Pack the moves in in and add them to the list
+	 * 
+	 * @param in
+	 */
+	public void addAll(List<ChessMove> in) {
+		for (int i = 0; i < in.size(); i++) {
+			add(PackedMove.fromChessMove(in.get(i)));
+		}
+	}
+}
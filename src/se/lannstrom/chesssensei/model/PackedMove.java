@@ -0,0 +1,131 @@
+package se.lannstrom.chesssensei.model;
+
+import se.lannstrom.chesssensei.model.Board.Castle;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.ChessMove.PromotionPiece;
+
+/**
+ * A chess move packed into an int so moves can be stored without any
+ * objects, see {@link IntMoveList}.
+ * 
+ * Layout:
+ * 		bits 0-5	from square (y * 8 + x)
+ * 		bits 6-11	to square
+ * 		bits 12-14	flags (en passant, castle, black)
+ * 		bits 15-17	promotion piece (ordinal + 1, 0 if none)
+ * 
+ * A castling move has the from and to squares of the king.
+ * 
+ * @author x1x
+ *
+ */
+public final class PackedMove {
+	public static final int FLAG_EN_PASSANT = 1 << 12;
+	public static final int FLAG_CASTLE = 1 << 13;
+	public static final int FLAG_BLACK = 1 << 14;
+
+	private static final int SQUARE_MASK = 0x3f;
+	private static final int TO_SHIFT = 6;
+	private static final int PROMOTION_SHIFT = 15;
+	private static final PromotionPiece[] PROMOTIONS = PromotionPiece.values();
+
+	private PackedMove() {
+	}
+
+	public static int encode(int from, int to, int flags) {
+		return from | (to << TO_SHIFT) | flags;
+	}
+
+	public static int encode(int from, int to, ChessColor c, int flags) {
+		if (c == ChessColor.BLACK) {
+			flags |= FLAG_BLACK;
+		}
+		return encode(from, to, flags);
+	}
+
+	public static int getFrom(int move) {
+		return move & SQUARE_MASK;
+	}
+
+	public static int getTo(int move) {
+		return (move >>> TO_SHIFT) & SQUARE_MASK;
+	}
+
+	public static boolean isEnPassant(int move) {
+		return (move & FLAG_EN_PASSANT) != 0;
+	}
+
+	public static boolean isCastle(int move) {
+		return (move & FLAG_CASTLE) != 0;
+	}
+
+	public static ChessColor getColor(int move) {
+		if ((move & FLAG_BLACK) != 0) {
+			return ChessColor.BLACK;
+		} else {
+			return ChessColor.WHITE;
+		}
+	}
+
+	/**
+	 * Returns the promotion piece or null if there is none
+	 * 
+	 * @param move
+	 * @return
+	 */
+	public static PromotionPiece getPromotion(int move) {
+		int p = move >>> PROMOTION_SHIFT;
+		if (p == 0) {
+			return null;
+		}
+		return PROMOTIONS[p - 1];
+	}
+
+	public static int withPromotion(int move, PromotionPiece pp) {
+		move &= (1 << PROMOTION_SHIFT) - 1;
+		if (pp != null) {
+			move |= (pp.ordinal() + 1) << PROMOTION_SHIFT;
+		}
+		return move;
+	}
+
+	public static Castle getCastling(int move) {
+		if (!isCastle(move)) {
+			return Castle.NONE;
+		}
+		boolean kingSide = (getTo(move) & 7) > (getFrom(move) & 7);
+		if (getColor(move) == ChessColor.WHITE) {
+			return kingSide ? Castle.W_KINGSIDE : Castle.W_QUEENSIDE;
+		} else {
+			return kingSide ? Castle.B_KINGSIDE : Castle.B_QUEENSIDE;
+		}
+	}
+
+	public static int fromChessMove(ChessMove m) {
+		int flags = 0;
+		if (m.isCastle()) {
+			flags |= FLAG_CASTLE;
+		}
+		if (m.isEnPassant()) {
+			flags |= FLAG_EN_PASSANT;
+		}
+		int move = encode(m.getFrom().getIndex(), m.getTo().getIndex(), m.getColor(), flags);
+		return withPromotion(move, m.getPromotion());
+	}
+
+	public static ChessMove toChessMove(int move) {
+		if (isCastle(move)) {
+			return new ChessMove(getCastling(move));
+		}
+
+		ChessMove m = new ChessMove(BoardPosition.get(getFrom(move)),
+									BoardPosition.get(getTo(move)),
+									getColor(move), isEnPassant(move));
+		m.setPromotion(getPromotion(move));
+		return m;
+	}
+
+	public static String toString(int move) {
+		return toChessMove(move).toString();
+	}
+}
@@ -0,0 +1,125 @@
+package se.lannstrom.chesssensei.model;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * The Zobrist keys of the positions of a game, see {@link Board#getZobristKey()}.
+ *
+ * A position can only repeat since the last capture or pawn move, so only
+ * the last halfMoveCount keys are searched when counting repetitions. The
+ * keys are kept in a ring buffer that is large enough for the 75-move rule,
+ * older keys are overwritten.
+ *
+ * @author x1x
+ *
+ */
+public class PositionHistory implements Parcelable {
+	/* Power of two larger than the 150 half moves of the 75-move rule */
+	private static final int CAPACITY = 256;
+	private static final int MASK = CAPACITY - 1;
+
+	private long[] keys = new long[CAPACITY];
+	/* Total number of keys added, the last one is at (count - 1) & MASK */
+	private int count;
+
+	public PositionHistory() {
+	}
+
+	/**
+	 * Create a history starting at the position b
+	 *
+	 * @param b
+	 */
+	public PositionHistory(Board b) {
+		add(b.getZobristKey());
+	}
+
+	/**
+	 * Add the key of the position after a move
+	 *
+	 * @param key
+	 */
+	public void add(long key) {
+		keys[count & MASK] = key;
+		count++;
+	}
+
+	/**
+	 * Remove the last key, e.g. when a move is taken back
+	 */
+	public void removeLast() {
+		if (count > 0) {
+			count--;
+		}
+	}
+
+	public long getLastKey() {
+		if (count == 0) {
+			throw new IllegalStateException("PositionHistory is empty");
+		}
+		return keys[(count - 1) & MASK];
+	}
+
+	/**
+	 * Number of keys still in the buffer
+	 */
+	public int size() {
+		return Math.min(count, CAPACITY);
+	}
+
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * How many times the last position has occurred, the last one included.
+	 * Only positions with the same color to move within the last
+	 * halfMoveCount half moves are compared.
+	 *
+	 * @param halfMoveCount half moves since the last capture or pawn move
+	 * @return
+	 */
+	public int getRepetitions(int halfMoveCount) {
+		if (count == 0) {
+			return 0;
+		}
+
+		long key = getLastKey();
+		int window = Math.min(halfMoveCount, size() - 1);
+		int repetitions = 1;
+		for (int i = 2; i <= window; i += 2) {
+			if (keys[(count - 1 - i) & MASK] == key) {
+				repetitions++;
+			}
+		}
+		return repetitions;
+	}
+
+	@Override
+	public int describeContents() {
+		return 0;
+	}
+
+	@Override
+	public void writeToParcel(Parcel out, int flags) {
+		out.writeLongArray(keys);
+		out.writeInt(count);
+	}
+
+	public static final Parcelable.Creator<PositionHistory> CREATOR =
+			new Parcelable.Creator<PositionHistory>() {
+		public PositionHistory createFromParcel(Parcel in) {
+			return new PositionHistory(in);
+		}
+
+		public PositionHistory[] newArray(int size) {
+			return new PositionHistory[size];
+		}
+	};
+
+	private PositionHistory(Parcel in) {
+		keys = in.createLongArray();
+		count = in.readInt();
+	}
+}
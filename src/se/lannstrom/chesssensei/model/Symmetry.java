@@ -0,0 +1,265 @@
+package se.lannstrom.chesssensei.model;
+
+import se.lannstrom.chesssensei.model.Board.Castle;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+
+/**
+ * Maps positions that only differ by a symmetry of the board to one
+ * canonical position, e.g. so a cache of positions can store them once.
+ *
+ * A transform is a mask of FLIP_FILES, FLIP_RANKS, TRANSPOSE and
+ * SWAP_COLORS. Which transforms keep a position equivalent depends on it:
+ * 		1) swapping the colors together with flipping the ranks always does
+ * 		2) flipping the files does if no castling is available
+ * 		3) all 16 do if there are no pawns and no castling is available
+ * The canonical transform is the allowed one giving the smallest
+ * {@link Board#getZobristKey()}.
+ *
+ * @author x1x
+ *
+ */
+public final class Symmetry {
+	/* Square (x, y) to (7 - x, y) */
+	public static final int FLIP_FILES = 1;
+	/* Square (x, y) to (x, 7 - y) */
+	public static final int FLIP_RANKS = 1 << 1;
+	/* Square (x, y) to (y, x), done before the flips */
+	public static final int TRANSPOSE = 1 << 2;
+	/* White pieces become black and the other way around */
+	public static final int SWAP_COLORS = 1 << 3;
+
+	public static final int IDENTITY = 0;
+	/* Swapping colors is only allowed with flipped ranks when there are pawns */
+	public static final int COLOR_FLIP = SWAP_COLORS | FLIP_RANKS;
+
+	private static final int TRANSFORMS = 16;
+
+	private Symmetry() {
+	}
+
+	/**
+	 * Does the transform give a position equivalent to b?
+	 *
+	 * @param b
+	 * @param transform
+	 * @return
+	 */
+	public static boolean isAllowed(Board b, int transform) {
+		if (transform == IDENTITY || transform == COLOR_FLIP) {
+			return true;
+		}
+		if (b.getCastleRights() != 0) {
+			return false;
+		}
+		int rest = transform & ~FLIP_FILES;
+		if (rest == IDENTITY || rest == COLOR_FLIP) {
+			return true;
+		}
+		long pawns = b.getBitboard(ChessPiece.W_PAWN) | b.getBitboard(ChessPiece.B_PAWN);
+		return pawns == 0;
+	}
+
+	/**
+	 * The allowed transform that gives the position with the smallest key
+	 *
+	 * @param b
+	 * @return
+	 */
+	public static int getCanonicalTransform(Board b) {
+		int best = IDENTITY;
+		long bestKey = b.getZobristKey();
+		for (int transform = 1; transform < TRANSFORMS; transform++) {
+			if (!isAllowed(b, transform)) {
+				continue;
+			}
+			long key = getKey(b, transform);
+			if (compareUnsigned(key, bestKey) < 0) {
+				best = transform;
+				bestKey = key;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * The key of the canonical position of b, the same for all positions
+	 * equivalent to b
+	 *
+	 * @param b
+	 * @return
+	 */
+	public static long getCanonicalKey(Board b) {
+		return getKey(b, getCanonicalTransform(b));
+	}
+
+	/**
+	 * The key of b transformed, without creating the transformed board
+	 *
+	 * @param b
+	 * @param transform
+	 * @return
+	 */
+	public static long getKey(Board b, int transform) {
+		long key = 0;
+		long occupied = b.getOccupied();
+		while (occupied != 0) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+			int to = transformSquare(square, transform);
+			key ^= Zobrist.piece(transformPiece(b.getPieceAt(square), transform), to & 7, to >>> 3);
+		}
+		key ^= Zobrist.active(transformColor(b.getActive(), transform));
+		key ^= Zobrist.castleRights(transformCastleRights(b.getCastleRights(), transform));
+		/* The allowed transforms keep the pawns next to the target */
+		if (b.isEnPassantPossible()) {
+			key ^= Zobrist.enPassant(transformPosition(b.getEnPassantTarget(), transform));
+		}
+		return key;
+	}
+
+	/**
+	 * A new board with b transformed
+	 *
+	 * @param b
+	 * @param transform
+	 * @return
+	 */
+	public static Board transform(Board b, int transform) {
+		Board t = new Board();
+		for (int square = 0; square < 64; square++) {
+			ChessPiece cp = b.getPieceAt(square);
+			if (cp != null) {
+				t.setPieceAt(transformSquare(square, transform), transformPiece(cp, transform));
+			}
+		}
+		t.setActive(transformColor(b.getActive(), transform));
+		t.setCastleRights(transformCastleRights(b.getCastleRights(), transform));
+		t.setEnPassantTarget(transformPosition(b.getEnPassantTarget(), transform));
+		t.setHalfMoveCount(b.getHalfMoveCount());
+		t.setFullMoveCount(b.getFullMoveCount());
+		return t;
+	}
+
+	/**
+	 * A new move with m transformed, e.g. a move found in the canonical
+	 * position is mapped back with {@link #inverse(ChessMove, int)}
+	 *
+	 * @param m
+	 * @param transform
+	 * @return
+	 */
+	public static ChessMove transform(ChessMove m, int transform) {
+		if (m.isCastle()) {
+			/* Only allowed without moving files, the castling keeps its side */
+			return new ChessMove(transformCastle(m.getCastling(), transform));
+		}
+		ChessMove t = new ChessMove(transformPosition(m.getFrom(), transform),
+									transformPosition(m.getTo(), transform),
+									transformColor(m.getColor(), transform),
+									m.isEnPassant());
+		t.setPromotion(m.getPromotion());
+		return t;
+	}
+
+	/**
+	 * A new move with the transform undone
+	 *
+	 * @param m
+	 * @param transform
+	 * @return
+	 */
+	public static ChessMove inverse(ChessMove m, int transform) {
+		return transform(m, getInverse(transform));
+	}
+
+	/**
+	 * The transform that undoes transform. Only differs from it when it
+	 * transposes and flips one axis, a quarter turn.
+	 *
+	 * @param transform
+	 * @return
+	 */
+	public static int getInverse(int transform) {
+		if ((transform & TRANSPOSE) == 0) {
+			return transform;
+		}
+		int flips = transform & (FLIP_FILES | FLIP_RANKS);
+		if (flips == FLIP_FILES || flips == FLIP_RANKS) {
+			return transform ^ (FLIP_FILES | FLIP_RANKS);
+		}
+		return transform;
+	}
+
+	/**
+	 * @param square index of the square, see {@link BoardPosition#getIndex()}
+	 * @param transform
+	 * @return
+	 */
+	public static int transformSquare(int square, int transform) {
+		int x = square & 7;
+		int y = square >>> 3;
+		if ((transform & TRANSPOSE) != 0) {
+			int tmp = x;
+			x = y;
+			y = tmp;
+		}
+		if ((transform & FLIP_FILES) != 0) {
+			x = 7 - x;
+		}
+		if ((transform & FLIP_RANKS) != 0) {
+			y = 7 - y;
+		}
+		return y * 8 + x;
+	}
+
+	private static BoardPosition transformPosition(BoardPosition bp, int transform) {
+		if (bp == null) {
+			return null;
+		}
+		return BoardPosition.get(transformSquare(bp.getIndex(), transform));
+	}
+
+	private static ChessPiece transformPiece(ChessPiece cp, int transform) {
+		if ((transform & SWAP_COLORS) == 0) {
+			return cp;
+		}
+		return ChessPiece.get(cp.getType(), ChessColor.getOpponent(cp.getColor()));
+	}
+
+	private static ChessColor transformColor(ChessColor c, int transform) {
+		if (c == null || (transform & SWAP_COLORS) == 0) {
+			return c;
+		}
+		return ChessColor.getOpponent(c);
+	}
+
+	private static int transformCastleRights(int mask, int transform) {
+		if ((transform & SWAP_COLORS) == 0) {
+			return mask;
+		}
+		int white = Castle.W_QUEENSIDE.getMask() | Castle.W_KINGSIDE.getMask();
+		/* The black bits are the white ones shifted two steps */
+		return ((mask & white) << 2) | ((mask >>> 2) & white);
+	}
+
+	private static Castle transformCastle(Castle c, int transform) {
+		if ((transform & SWAP_COLORS) == 0) {
+			return c;
+		}
+		switch (c) {
+		case W_KINGSIDE: return Castle.B_KINGSIDE;
+		case W_QUEENSIDE: return Castle.B_QUEENSIDE;
+		case B_KINGSIDE: return Castle.W_KINGSIDE;
+		case B_QUEENSIDE: return Castle.W_QUEENSIDE;
+		default: return c;
+		}
+	}
+
+	/* Long.compareUnsigned is missing before Java 8 */
+	private static int compareUnsigned(long a, long b) {
+		a += Long.MIN_VALUE;
+		b += Long.MIN_VALUE;
+		return (a < b) ? -1 : ((a == b) ? 0 : 1);
+	}
+}
@@ -0,0 +1,86 @@
+package se.lannstrom.chesssensei.model;
+
+import java.util.Random;
+
+import se.lannstrom.chesssensei.model.Board.Castle;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+
+/**
+ * Random keys for Zobrist hashing of a {@link Board}.
+ * 
+ * The key of a position is the XOR of the keys of every piece on its
+ * square, the side to move, every available castling and the en passant
+ * target. A fixed seed is used so the keys are the same between runs.
+ * 
+ * @author x1x
+ *
+ */
+public final class Zobrist {
+	private static final long[][] PIECES = new long[ChessPiece.values().length][64];
+	private static final long[] CASTLES = new long[Castle.values().length];
+	/* XOR of the CASTLES keys for every castle rights mask */
+	private static final long[] CASTLE_RIGHTS = new long[16];
+	private static final long[] EN_PASSANT = new long[64];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		Random random = new Random(0x5EE5E1L);
+		for (int i = 0; i < PIECES.length; i++) {
+			for (int j = 0; j < 64; j++) {
+				PIECES[i][j] = random.nextLong();
+			}
+		}
+		for (Castle c : Castle.values()) {
+			/* NONE is just a marker and doesn't change the position */
+			if (c != Castle.NONE) {
+				CASTLES[c.ordinal()] = random.nextLong();
+			}
+		}
+		for (Castle c : Castle.values()) {
+			for (int mask = 0; mask < CASTLE_RIGHTS.length; mask++) {
+				if ((mask & c.getMask()) != 0) {
+					CASTLE_RIGHTS[mask] ^= CASTLES[c.ordinal()];
+				}
+			}
+		}
+		for (int i = 0; i < 64; i++) {
+			EN_PASSANT[i] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long piece(ChessPiece cp, int x, int y) {
+		if (cp == null) {
+			return 0;
+		}
+		return PIECES[cp.ordinal()][y * 8 + x];
+	}
+
+	/**
+	 * The key of a castle rights mask, see {@link Board#getCastleRights()}
+	 * 
+	 * @param mask
+	 * @return
+	 */
+	public static long castleRights(int mask) {
+		return CASTLE_RIGHTS[mask];
+	}
+
+	public static long enPassant(BoardPosition bp) {
+		if (bp == null) {
+			return 0;
+		}
+		return EN_PASSANT[bp.getY() * 8 + bp.getX()];
+	}
+
+	public static long active(ChessColor c) {
+		if (c == ChessColor.BLACK) {
+			return BLACK_TO_MOVE;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,307 @@
+package se.lannstrom.chesssensei.model.rules;
+
+import java.util.List;
+
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.IntMoveList;
+import se.lannstrom.chesssensei.model.PackedMove;
+
+/**
+ * Precomputed attack bitboards. Squares are indexed y * 8 + x like in
+ * {@link BoardPosition#getIndex()}.
+ * 
+ * Knights, kings and pawn captures are looked up per square.
+ * 
+ * There are also tables with the squares between and the line through two
+ * squares on the same rank, file or diagonal, used for pins and checks.
+ * 
+ * Sliding pieces use magic bitboards. The relevant occupancy of a rook or
+ * bishop square is multiplied with a magic number and shifted to get an
+ * index into a table holding the attacks for that occupancy. The magic
+ * numbers are found offline for this square layout, the tables are built
+ * when the class is loaded.
+ * 
+ * @author x1x
+ *
+ */
+public final class AttackTables {
+	private static final int[][] ROOK_DIRECTIONS = { {1, 0}, {-1, 0}, {0, 1}, {0, -1} };
+	private static final int[][] BISHOP_DIRECTIONS = { {1, 1}, {1, -1}, {-1, 1}, {-1, -1} };
+	private static final int[][] KNIGHT_OFFSETS = {
+		{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+	};
+	private static final int[][] KING_OFFSETS = {
+		{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+	};
+	/* Pawn captures by color ordinal, white moves towards y = 0 */
+	private static final int[][][] PAWN_OFFSETS = {
+		{ {-1, -1}, {1, -1} },
+		{ {-1, 1}, {1, 1} }
+	};
+
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	private static final long[] ROOK_MAGICS = {
+		0x8080006480184001L, 0x0440200440001002L, 0x4100200010084100L, 0x4080100004800801L,
+		0x0A00020004082110L, 0x0900010004000842L, 0x0080020000800100L, 0x020009042B440082L,
+		0x0000801080204000L, 0x0001804000200080L, 0x0008802000100080L, 0x0100800800100082L,
+		0x21C0800800040080L, 0x0210808002000400L, 0x8C040016086B1004L, 0x1001000200804100L,
+		0x0242228000400090L, 0x0081090040008020L, 0x2200808010002000L, 0x0008010100201000L,
+		0x0108004040040200L, 0x0000808002000400L, 0x0401010100040200L, 0x0680420000804401L,
+		0x80C0400080208000L, 0x0400400080200090L, 0x0020082080100081L, 0x0000080480100080L,
+		0x2808080100110004L, 0x0100200801049040L, 0x880801A400221008L, 0x800208420008AC01L,
+		0x0021204001800081L, 0x00C0005000402001L, 0x0000801004802000L, 0x8028008068803000L,
+		0x0400800400800800L, 0x5002001002000408L, 0x0041000429001200L, 0xC001086406000081L,
+		0x4000800041010020L, 0x0410004020104000L, 0x2118100020008080L, 0x0210001008008080L,
+		0x1080040008008080L, 0x14EA0008841E0011L, 0x0801010002008080L, 0x1400009059120004L,
+		0x2000800040002080L, 0x0190200040100840L, 0x2061410015200100L, 0x2000080230008280L,
+		0x4438000804008080L, 0x2810800200040080L, 0x0391000402000100L, 0x4400005884010A00L,
+		0x0002800324310441L, 0x0080220040810012L, 0x0080084020010011L, 0x084100201830024DL,
+		0x2101005002080005L, 0x2082000410414802L, 0x00C0620801500094L, 0x0080040480204902L
+	};
+
+	private static final long[] BISHOP_MAGICS = {
+		0x0042048108050500L, 0x1704088800408400L, 0x0022180C44800D10L, 0x0282209200000080L,
+		0x0104030800091020L, 0x0910821040404140L, 0x820C884110100501L, 0x0C00120804044482L,
+		0x02D422048C088400L, 0x010C900408004043L, 0x8000080841002000L, 0x00841C10C6000400L,
+		0x3220011140030004L, 0x440000901420906AL, 0x0002410101104028L, 0x4040208041101100L,
+		0x1140084808114402L, 0x2410081204084294L, 0x8202200102040100L, 0x4108000104110000L,
+		0x0002804400A08048L, 0x8421000610008440L, 0x1020800A2801080CL, 0x0001000280A09010L,
+		0x2022C00208110400L, 0x0002480102088810L, 0x8002110092040C00L, 0x0041080001004100L,
+		0x1008840080802021L, 0x0422041046004202L, 0x313802110090840CL, 0x0062004000940080L,
+		0x0821206000090880L, 0x0600904400B00482L, 0x0200840100108800L, 0x4001400820C20200L,
+		0x0108020400031010L, 0x0020242500202080L, 0x001202021010482CL, 0x0082008110102401L,
+		0x0241082011080600L, 0x090E02025327200CL, 0x01C8140201082800L, 0x0008849148004C00L,
+		0x044A080100400400L, 0x0820202400200040L, 0x0020080228800040L, 0x0005420C82100100L,
+		0x0802011002100000L, 0xC422005128080002L, 0x00C0002402080008L, 0x8004040021980860L,
+		0x6000081012120801L, 0x2010400801010480L, 0x020510100200A100L, 0x6082081244004800L,
+		0x010121004210C000L, 0x2010146324102408L, 0x410080202C020800L, 0x0205402000420200L,
+		0x0301210010820208L, 0x0002012202020200L, 0x2000A12004010040L, 0x00B0200200A02900L
+	};
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final int[] ROOK_OFFSETS = new int[64];
+	private static final int[] BISHOP_OFFSETS = new int[64];
+	private static final long[] ROOK_ATTACKS;
+	private static final long[] BISHOP_ATTACKS;
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	static {
+		for (int sq = 0; sq < 64; sq++) {
+			KNIGHT_ATTACKS[sq] = leaperAttacks(sq, KNIGHT_OFFSETS);
+			KING_ATTACKS[sq] = leaperAttacks(sq, KING_OFFSETS);
+			PAWN_ATTACKS[0][sq] = leaperAttacks(sq, PAWN_OFFSETS[0]);
+			PAWN_ATTACKS[1][sq] = leaperAttacks(sq, PAWN_OFFSETS[1]);
+		}
+
+		ROOK_ATTACKS = initSlider(ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS,
+								  ROOK_SHIFTS, ROOK_OFFSETS);
+		BISHOP_ATTACKS = initSlider(BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS,
+									BISHOP_SHIFTS, BISHOP_OFFSETS);
+		initLines();
+	}
+
+	private AttackTables() {
+	}
+
+	public static long knightAttacks(int square) {
+		return KNIGHT_ATTACKS[square];
+	}
+
+	public static long kingAttacks(int square) {
+		return KING_ATTACKS[square];
+	}
+
+	/**
+	 * The squares a pawn of color c at square can capture on
+	 * 
+	 * @param c
+	 * @param square
+	 * @return
+	 */
+	public static long pawnAttacks(ChessColor c, int square) {
+		return PAWN_ATTACKS[c.ordinal()][square];
+	}
+
+	public static long rookAttacks(int square, long occupied) {
+		long relevant = occupied & ROOK_MASKS[square];
+		int index = (int) ((relevant * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+		return ROOK_ATTACKS[ROOK_OFFSETS[square] + index];
+	}
+
+	public static long bishopAttacks(int square, long occupied) {
+		long relevant = occupied & BISHOP_MASKS[square];
+		int index = (int) ((relevant * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+		return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + index];
+	}
+
+	public static long queenAttacks(int square, long occupied) {
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+
+	/**
+	 * The squares strictly between a and b if they are on the same rank,
+	 * file or diagonal, otherwise 0
+	 * 
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	public static long between(int a, int b) {
+		return BETWEEN[a][b];
+	}
+
+	/**
+	 * The whole rank, file or diagonal through a and b, otherwise 0
+	 * 
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	public static long line(int a, int b) {
+		return LINE[a][b];
+	}
+
+	/**
+	 * Add a move from from to every square in targets
+	 * 
+	 * @param moves
+	 * @param from
+	 * @param targets
+	 * @param color
+	 */
+	static void addMoves(List<ChessMove> moves, BoardPosition from, long targets,
+						 ChessColor color) {
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			moves.add(new ChessMove(from, BoardPosition.get(to), color));
+		}
+	}
+
+	/**
+	 * Add a move packed with {@link PackedMove} from from to every square in
+	 * targets
+	 * 
+	 * @param moves
+	 * @param from
+	 * @param targets
+	 * @param color
+	 */
+	static void addMoves(IntMoveList moves, int from, long targets, ChessColor color) {
+		int flags = (color == ChessColor.BLACK) ? PackedMove.FLAG_BLACK : 0;
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			moves.add(PackedMove.encode(from, to, flags));
+		}
+	}
+
+	private static void initLines() {
+		for (int a = 0; a < 64; a++) {
+			for (int b = 0; b < 64; b++) {
+				if (a == b) {
+					continue;
+				}
+				long bitA = 1L << a;
+				long bitB = 1L << b;
+				if ((rookAttacks(a, 0) & bitB) != 0) {
+					BETWEEN[a][b] = rookAttacks(a, bitB) & rookAttacks(b, bitA);
+					LINE[a][b] = (rookAttacks(a, 0) & rookAttacks(b, 0)) | bitA | bitB;
+				} else if ((bishopAttacks(a, 0) & bitB) != 0) {
+					BETWEEN[a][b] = bishopAttacks(a, bitB) & bishopAttacks(b, bitA);
+					LINE[a][b] = (bishopAttacks(a, 0) & bishopAttacks(b, 0)) | bitA | bitB;
+				}
+			}
+		}
+	}
+
+	private static long leaperAttacks(int square, int[][] offsets) {
+		long attacks = 0;
+		for (int[] d : offsets) {
+			int x = (square & 7) + d[0];
+			int y = (square >>> 3) + d[1];
+			if (BoardPosition.isInside(x, y)) {
+				attacks |= 1L << (y * 8 + x);
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Build the masks and the attack table for a sliding piece
+	 * 
+	 * @return the attack table
+	 */
+	private static long[] initSlider(int[][] directions, long[] magics, long[] masks,
+									 int[] shifts, int[] offsets) {
+		int size = 0;
+		for (int sq = 0; sq < 64; sq++) {
+			masks[sq] = relevantOccupancy(sq, directions);
+			int bits = Long.bitCount(masks[sq]);
+			shifts[sq] = 64 - bits;
+			offsets[sq] = size;
+			size += 1 << bits;
+		}
+
+		long[] table = new long[size];
+		for (int sq = 0; sq < 64; sq++) {
+			/* Enumerate every subset of the mask */
+			long subset = 0;
+			do {
+				int index = (int) ((subset * magics[sq]) >>> shifts[sq]);
+				table[offsets[sq] + index] = slidingAttacks(sq, subset, directions);
+				subset = (subset - masks[sq]) & masks[sq];
+			} while (subset != 0);
+		}
+		return table;
+	}
+
+	/**
+	 * The squares whose occupancy matters for a slider at square. The last
+	 * square in each direction is left out as it is attacked either way.
+	 */
+	private static long relevantOccupancy(int square, int[][] directions) {
+		long mask = 0;
+		for (int[] d : directions) {
+			int x = (square & 7) + d[0];
+			int y = (square >>> 3) + d[1];
+			while (BoardPosition.isInside(x + d[0], y + d[1])) {
+				mask |= 1L << (y * 8 + x);
+				x += d[0];
+				y += d[1];
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Walk the rays from square until the edge of the board or an occupied
+	 * square, which is included.
+	 */
+	private static long slidingAttacks(int square, long occupied, int[][] directions) {
+		long attacks = 0;
+		for (int[] d : directions) {
+			int x = (square & 7) + d[0];
+			int y = (square >>> 3) + d[1];
+			while (BoardPosition.isInside(x, y)) {
+				long bit = 1L << (y * 8 + x);
+				attacks |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				x += d[0];
+				y += d[1];
+			}
+		}
+		return attacks;
+	}
+}
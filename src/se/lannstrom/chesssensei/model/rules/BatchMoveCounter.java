@@ -0,0 +1,389 @@
+package se.lannstrom.chesssensei.model.rules;
+
+import java.util.Arrays;
+
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.Board.Castle;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.Board.PieceType;
+import se.lannstrom.chesssensei.model.BoardPosition;
+
+/**
+ * Counts the legal moves of many positions at once, e.g. to check a whole
+ * set of problems. The counts are the same as the sizes of
+ * {@link ChessRuleStrategy#getAllValidMoves(Board)}.
+ *
+ * The positions are copied into flat primitive arrays, one entry per
+ * position, and counted from there without any Board or move objects. Pawns
+ * that aren't pinned are counted for all of them at once by shifting
+ * their bitboard, the other pieces one at a time.
+ *
+ * @author x1x
+ *
+ */
+public class BatchMoveCounter {
+	private static final int PIECES = ChessPiece.values().length;
+	private static final ChessColor[] COLORS = ChessColor.values();
+	/* Index of a piece in a position's bitboards by color and PieceType ordinal */
+	private static final int[][] PIECE_INDEX = new int[COLORS.length][PieceType.values().length];
+	static {
+		for (ChessColor c : COLORS) {
+			for (PieceType t : PieceType.values()) {
+				PIECE_INDEX[c.ordinal()][t.ordinal()] = ChessPiece.get(t, c).ordinal();
+			}
+		}
+	}
+
+	private static final int PAWN = PieceType.PAWN.ordinal();
+	private static final int BISHOP = PieceType.BISHOP.ordinal();
+	private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+	private static final int ROOK = PieceType.ROOK.ordinal();
+	private static final int QUEEN = PieceType.QUEEN.ordinal();
+	private static final int KING = PieceType.KING.ordinal();
+
+	private static final long FILE_A = 0x0101010101010101L;
+	private static final long FILE_H = 0x8080808080808080L;
+	/* Squares a white or black pawn reaches with a single step from its start */
+	private static final long WHITE_DOUBLE_STEP = 0x0000FF0000000000L;
+	private static final long BLACK_DOUBLE_STEP = 0x0000000000FF0000L;
+
+	/* Squares that must be empty and not attacked by castle ordinal */
+	private static final long[] CASTLE_EMPTY = new long[Castle.values().length];
+	private static final long[] CASTLE_SAFE = new long[Castle.values().length];
+	static {
+		setCastle(Castle.W_KINGSIDE, "F1 G1", "E1 F1 G1");
+		setCastle(Castle.W_QUEENSIDE, "B1 C1 D1", "E1 D1 C1");
+		setCastle(Castle.B_KINGSIDE, "F8 G8", "E8 F8 G8");
+		setCastle(Castle.B_QUEENSIDE, "B8 C8 D8", "E8 D8 C8");
+	}
+
+	/* The positions, PIECES bitboards each */
+	private long[] bitboards;
+	/* Color ordinal of the side to move */
+	private byte[] active;
+	private byte[] castleRights;
+	/* En passant target square or -1 */
+	private byte[] enPassant;
+	private int size;
+
+	public BatchMoveCounter() {
+		this(64);
+	}
+
+	public BatchMoveCounter(int capacity) {
+		capacity = Math.max(capacity, 1);
+		bitboards = new long[capacity * PIECES];
+		active = new byte[capacity];
+		castleRights = new byte[capacity];
+		enPassant = new byte[capacity];
+	}
+
+	/**
+	 * Copy the position b into the batch
+	 *
+	 * @param b
+	 * @return the index of the position
+	 */
+	public int add(Board b) {
+		if (size == active.length) {
+			int capacity = size * 2;
+			bitboards = Arrays.copyOf(bitboards, capacity * PIECES);
+			active = Arrays.copyOf(active, capacity);
+			castleRights = Arrays.copyOf(castleRights, capacity);
+			enPassant = Arrays.copyOf(enPassant, capacity);
+		}
+
+		int base = size * PIECES;
+		for (ChessPiece cp : ChessPiece.values()) {
+			bitboards[base + cp.ordinal()] = b.getBitboard(cp);
+		}
+		active[size] = (byte) b.getActive().ordinal();
+		castleRights[size] = (byte) b.getCastleRights();
+		BoardPosition target = b.getEnPassantTarget();
+		enPassant[size] = (byte) ((target == null) ? -1 : target.getIndex());
+		return size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Count the legal moves of every position
+	 *
+	 * @param out the count of position i is put at out[i], at least size() long
+	 */
+	public void countMoves(int[] out) {
+		for (int i = 0; i < size; i++) {
+			out[i] = countMoves(i);
+		}
+	}
+
+	/**
+	 * The number of legal moves of all positions together
+	 *
+	 * @return
+	 */
+	public long countAllMoves() {
+		long total = 0;
+		for (int i = 0; i < size; i++) {
+			total += countMoves(i);
+		}
+		return total;
+	}
+
+	/**
+	 * Count the legal moves of the position with index i
+	 *
+	 * @param i
+	 * @return
+	 */
+	public int countMoves(int i) {
+		int base = i * PIECES;
+		int us = active[i];
+		int them = 1 - us;
+		int[] ourIndex = PIECE_INDEX[us];
+		int[] theirIndex = PIECE_INDEX[them];
+
+		long own = getColorBitboard(base, us);
+		long enemy = getColorBitboard(base, them);
+		long occupied = own | enemy;
+		long kings = bitboards[base + ourIndex[KING]];
+		int king = (kings == 0) ? -1 : Long.numberOfTrailingZeros(kings);
+
+		int count = 0;
+		long checkers = 0;
+		long checkMask = ~0L;
+		long pinned = 0;
+		if (king != -1) {
+			checkers = getAttackers(base, king, them, occupied);
+			if (Long.bitCount(checkers) > 1) {
+				checkMask = 0;
+			} else if (checkers != 0) {
+				checkMask = checkers | AttackTables.between(king, Long.numberOfTrailingZeros(checkers));
+			}
+			pinned = getPinned(base, king, theirIndex, own, occupied);
+
+			/* The king may not hide behind itself from a slider */
+			long targets = AttackTables.kingAttacks(king) & ~own;
+			long withoutKing = occupied & ~kings;
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				if (getAttackers(base, to, them, withoutKing) == 0) {
+					count++;
+				}
+			}
+		}
+		if (checkMask == 0) {
+			/* Double check, only the king can move */
+			return count;
+		}
+
+		count += countPawnMoves(base, us, king, own, enemy, checkMask, pinned);
+		for (int type = 0; type < PIECE_INDEX[us].length; type++) {
+			if (type == PAWN || type == KING) {
+				continue;
+			}
+			long pieces = bitboards[base + ourIndex[type]];
+			while (pieces != 0) {
+				int from = Long.numberOfTrailingZeros(pieces);
+				pieces &= pieces - 1;
+				long targets = getAttacks(type, from, occupied) & ~own & checkMask;
+				if ((pinned & (1L << from)) != 0) {
+					targets &= AttackTables.line(king, from);
+				}
+				count += Long.bitCount(targets);
+			}
+		}
+
+		count += countEnPassant(i, base, us, king, enemy, occupied);
+		if (checkers == 0) {
+			count += countCastling(i, base, us, king, occupied);
+		}
+		return count;
+	}
+
+	private int countPawnMoves(int base, int us, int king, long own, long enemy,
+							   long checkMask, long pinned) {
+		long pawns = bitboards[base + PIECE_INDEX[us][PAWN]];
+		long occupied = own | enemy;
+		int count = 0;
+
+		/* Pinned pawns one at a time, they may only move along the pin */
+		long pinnedPawns = pawns & pinned;
+		ChessColor color = COLORS[us];
+		int forward = (us == ChessColor.WHITE.ordinal()) ? -8 : 8;
+		while (pinnedPawns != 0) {
+			int from = Long.numberOfTrailingZeros(pinnedPawns);
+			pinnedPawns &= pinnedPawns - 1;
+			long targets = AttackTables.pawnAttacks(color, from) & enemy;
+			long single = 1L << (from + forward);
+			if ((single & occupied) == 0) {
+				targets |= single;
+				long start = (forward < 0) ? WHITE_DOUBLE_STEP : BLACK_DOUBLE_STEP;
+				if ((single & start) != 0 && ((1L << (from + 2 * forward)) & occupied) == 0) {
+					targets |= 1L << (from + 2 * forward);
+				}
+			}
+			count += Long.bitCount(targets & checkMask & AttackTables.line(king, from));
+		}
+
+		/* The rest together, every target square belongs to one pawn per shift */
+		pawns &= ~pinned;
+		long single, doubleStep, left, right;
+		if (forward < 0) {
+			single = (pawns >>> 8) & ~occupied;
+			doubleStep = ((single & WHITE_DOUBLE_STEP) >>> 8) & ~occupied;
+			left = ((pawns & ~FILE_A) >>> 9) & enemy;
+			right = ((pawns & ~FILE_H) >>> 7) & enemy;
+		} else {
+			single = (pawns << 8) & ~occupied;
+			doubleStep = ((single & BLACK_DOUBLE_STEP) << 8) & ~occupied;
+			left = ((pawns & ~FILE_A) << 7) & enemy;
+			right = ((pawns & ~FILE_H) << 9) & enemy;
+		}
+		count += Long.bitCount(single & checkMask) + Long.bitCount(doubleStep & checkMask) +
+				 Long.bitCount(left & checkMask) + Long.bitCount(right & checkMask);
+		return count;
+	}
+
+	/* Same rules as LegalMoveGenerator, any enemy piece beside the target is taken */
+	private int countEnPassant(int i, int base, int us, int king, long enemy, long occupied) {
+		int to = enPassant[i];
+		if (to == -1 || (enemy & (1L << to)) != 0) {
+			return 0;
+		}
+
+		int them = 1 - us;
+		long pawns = bitboards[base + PIECE_INDEX[us][PAWN]];
+		long candidates = AttackTables.pawnAttacks(COLORS[them], to) & pawns;
+		int count = 0;
+		while (candidates != 0) {
+			int from = Long.numberOfTrailingZeros(candidates);
+			candidates &= candidates - 1;
+			long capturedBit = 1L << ((from & ~7) | (to & 7));
+			if ((enemy & capturedBit) == 0) {
+				continue;
+			}
+			if (king == -1) {
+				count++;
+				continue;
+			}
+			long after = (occupied & ~(1L << from) & ~capturedBit) | (1L << to);
+			if ((getAttackers(base, king, them, after) & ~capturedBit) == 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/* Same rules as ChessRuleStrategy, the rooks aren't looked at */
+	private int countCastling(int i, int base, int us, int king, long occupied) {
+		boolean white = us == ChessColor.WHITE.ordinal();
+		BoardPosition start = Board.getStartingKingPos(COLORS[us]);
+		if (king != start.getIndex()) {
+			return 0;
+		}
+
+		int count = 0;
+		Castle kingSide = white ? Castle.W_KINGSIDE : Castle.B_KINGSIDE;
+		Castle queenSide = white ? Castle.W_QUEENSIDE : Castle.B_QUEENSIDE;
+		if (isCanCastle(i, base, us, kingSide, occupied)) {
+			count++;
+		}
+		if (isCanCastle(i, base, us, queenSide, occupied)) {
+			count++;
+		}
+		return count;
+	}
+
+	private boolean isCanCastle(int i, int base, int us, Castle castle, long occupied) {
+		int c = castle.ordinal();
+		if ((castleRights[i] & castle.getMask()) == 0 || (occupied & CASTLE_EMPTY[c]) != 0) {
+			return false;
+		}
+		long safe = CASTLE_SAFE[c];
+		while (safe != 0) {
+			int square = Long.numberOfTrailingZeros(safe);
+			safe &= safe - 1;
+			if (getAttackers(base, square, 1 - us, occupied) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* Our pieces alone between the king and an enemy slider */
+	private long getPinned(int base, int king, int[] theirIndex, long own, long occupied) {
+		long queens = bitboards[base + theirIndex[QUEEN]];
+		long rooks = bitboards[base + theirIndex[ROOK]] | queens;
+		long bishops = bitboards[base + theirIndex[BISHOP]] | queens;
+		long snipers = (AttackTables.rookAttacks(king, 0) & rooks) |
+					   (AttackTables.bishopAttacks(king, 0) & bishops);
+
+		long pinned = 0;
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = AttackTables.between(king, sniper) & occupied;
+			if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+				pinned |= blockers;
+			}
+		}
+		return pinned;
+	}
+
+	/* Pieces of color by attacking square with the given occupancy */
+	private long getAttackers(int base, int square, int by, long occupied) {
+		int[] index = PIECE_INDEX[by];
+		long queens = bitboards[base + index[QUEEN]];
+		long rooks = bitboards[base + index[ROOK]] | queens;
+		long bishops = bitboards[base + index[BISHOP]] | queens;
+
+		return (AttackTables.pawnAttacks(COLORS[1 - by], square) & bitboards[base + index[PAWN]]) |
+			   (AttackTables.knightAttacks(square) & bitboards[base + index[KNIGHT]]) |
+			   (AttackTables.kingAttacks(square) & bitboards[base + index[KING]]) |
+			   (AttackTables.rookAttacks(square, occupied) & rooks) |
+			   (AttackTables.bishopAttacks(square, occupied) & bishops);
+	}
+
+	private long getColorBitboard(int base, int color) {
+		int[] index = PIECE_INDEX[color];
+		long pieces = 0;
+		for (int type = 0; type < index.length; type++) {
+			pieces |= bitboards[base + index[type]];
+		}
+		return pieces;
+	}
+
+	private static long getAttacks(int type, int from, long occupied) {
+		if (type == KNIGHT) {
+			return AttackTables.knightAttacks(from);
+		} else if (type == BISHOP) {
+			return AttackTables.bishopAttacks(from, occupied);
+		} else if (type == ROOK) {
+			return AttackTables.rookAttacks(from, occupied);
+		} else {
+			return AttackTables.queenAttacks(from, occupied);
+		}
+	}
+
+	private static void setCastle(Castle c, String empty, String safe) {
+		CASTLE_EMPTY[c.ordinal()] = getSquares(empty);
+		CASTLE_SAFE[c.ordinal()] = getSquares(safe);
+	}
+
+	private static long getSquares(String squares) {
+		long bits = 0;
+		for (String square : squares.split(" ")) {
+			bits |= 1L << BoardPosition.get(square).getIndex();
+		}
+		return bits;
+	}
+}
@@ -1,16 +1,20 @@
 package se.lannstrom.chesssensei.model.rules;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 
+import se.lannstrom.chesssensei.model.AttackMap;
 import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.BoardDiff;
 import se.lannstrom.chesssensei.model.Board.Castle;
 import se.lannstrom.chesssensei.model.Board.ChessColor;
 import se.lannstrom.chesssensei.model.Board.GameResult;
+import se.lannstrom.chesssensei.model.Board.Termination;
 import se.lannstrom.chesssensei.model.BoardPosition;
 import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.IntMoveList;
+import se.lannstrom.chesssensei.model.PackedMove;
+import se.lannstrom.chesssensei.model.PositionHistory;
 import se.lannstrom.chesssensei.model.Board.ChessPiece;
 import se.lannstrom.chesssensei.model.ChessMove.PromotionPiece;
 
@@ -18,40 +22,52 @@ import se.lannstrom.chesssensei.model.ChessMove.PromotionPiece;
  * Knows about how the pieces move in chess
  */
 public class ChessRuleStrategy {
-	private HashMap<ChessPiece, ChessPieceStrategy> pieceStrategies =
-			new HashMap<ChessPiece, ChessPieceStrategy>();
-
-	public ChessRuleStrategy() {
-		setupStandard();
+	/* Files of the squares involved in castling */
+	private static final int FILE_A = 0;
+	private static final int FILE_B = 1;
+	private static final int FILE_C = 2;
+	private static final int FILE_D = 3;
+	private static final int FILE_E = 4;
+	private static final int FILE_F = 5;
+	private static final int FILE_G = 6;
+	private static final int FILE_H = 7;
+
+	/* Squares with x + y even, A8 is a light square */
+	private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+	/* Castling moves by Castle ordinal, only read */
+	private static final ChessMove[] CASTLE_MOVES = new ChessMove[Castle.values().length];
+	static {
+		for (Castle c : Castle.values()) {
+			if (c != Castle.NONE) {
+				CASTLE_MOVES[c.ordinal()] = new ChessMove(c);
+			}
+		}
 	}
 
-	/**
-	 * Setup standard rules of chess
-	 */
-	private void setupStandard() {
-		/* Rook */
-		register(ChessPiece.W_ROOK, new RookStrategy());
-		register(ChessPiece.B_ROOK, new RookStrategy());
-
-		/* Bishop */
-		register(ChessPiece.W_BISHOP, new BishopStrategy());
-		register(ChessPiece.B_BISHOP, new BishopStrategy());
-
-		/* Knight */
-		register(ChessPiece.W_KNIGHT, new KnightStrategy());
-		register(ChessPiece.B_KNIGHT, new KnightStrategy());
+	private LegalMoveGenerator legalMoves = new LegalMoveGenerator();
 
-		/* Queen */
-		register(ChessPiece.W_QUEEN, new QueenStrategy());
-		register(ChessPiece.B_QUEEN, new QueenStrategy());
+	/* Legal moves of recent positions, null if not caching */
+	private MoveCache moveCache;
 
-		/* King */
-		register(ChessPiece.W_KING, new KingStrategy());
-		register(ChessPiece.B_KING, new KingStrategy());
+	/**
+	 * Cache the legal moves of the positions seen by
+	 * {@link #getAllValidMoves(Board)}. Off by default. The cache may be
+	 * shared with strategies on other threads.
+	 *
+	 * @param cache the cache to use or null to stop caching
+	 */
+	public void setMoveCache(MoveCache cache) {
+		moveCache = cache;
+	}
 
-		/* Pawn */
-		register(ChessPiece.W_PAWN, new PawnStrategy());
-		register(ChessPiece.B_PAWN, new PawnStrategy());
+	/**
+	 * The cache set with {@link #setMoveCache(MoveCache)}, may be null
+	 *
+	 * @return
+	 */
+	public MoveCache getMoveCache() {
+		return moveCache;
 	}
 
 	/**
@@ -75,36 +91,227 @@ public class ChessRuleStrategy {
 			addAvailableCastling(moves, c, b);
 		}
 
-		/* Call getMove to get moves available from boardposition from */
-		if (from != null) {
-			moves.addAll(getMoves(b, from, c));
-		}
-
-		/* Check if added moves are legal */
+		/* Check if added castling moves are legal */
 		for (ChessMove m : moves) {
 			if (isValidMove(b, m)) {
 				validMoves.add(m);
 			}
 		}
 
+		/* Legal moves available from boardposition from */
+		if (from != null) {
+			int castleCount = validMoves.size();
+			LegalMoveGenerator.CheckInfo info = legalMoves.getCheckInfo(b, c);
+			legalMoves.addLegalMoves(b, from, c, info, validMoves);
+			if (validMoves.size() > castleCount && b.getActive() != c) {
+				throw wrongColor(b, c);
+			}
+		}
+
 		return validMoves;
 	}
 
+	/**
+	 * Like {@link #getValidMoves(Board, BoardPosition, ChessColor)} but adds
+	 * the moves packed with {@link PackedMove} to out
+	 *
+	 * @param b
+	 * @param from
+	 * @param c
+	 * @param out
+	 */
+	public void getValidMoves(Board b, BoardPosition from, ChessColor c, IntMoveList out) {
+		int start = out.size();
+
+		/* Is it a king at from and it is the starting position */
+		BoardPosition kingPos = Board.getStartingKingPos(c);
+		boolean kingFrom = kingPos.equals(from) && b.isKingAt(from, c);
+
+		if (from == null || kingFrom) {
+			addLegalCastling(b, c, out);
+			if (out.size() > start && b.getActive() != c) {
+				throw wrongColor(b, c);
+			}
+		}
+
+		if (from != null) {
+			int castleCount = out.size();
+			LegalMoveGenerator.CheckInfo info = legalMoves.getCheckInfo(b, c);
+			legalMoves.addLegalMoves(b, from.getIndex(), c, info, out);
+			if (out.size() > castleCount && b.getActive() != c) {
+				throw wrongColor(b, c);
+			}
+		}
+	}
+
+	private IllegalArgumentException wrongColor(Board b, ChessColor c) {
+		return new IllegalArgumentException("ChessMove is not valid. Wrong color is active." +
+											"In Board object active color is: " + b.getActive() +
+											" and in ChessMove object: " + c);
+	}
+
+	/**
+	 * Like {@link #getAllValidMoves(Board)} but with moves packed with
+	 * {@link PackedMove}. Allocates nothing per move once out has grown to
+	 * its working size.
+	 *
+	 * @param b
+	 * @param out cleared and filled with the valid moves
+	 */
+	public void getAllValidMoves(Board b, IntMoveList out) {
+		if (moveCache != null) {
+			out.clear();
+			out.addAll(getCachedMoves(b));
+			return;
+		}
+		generateAllValidMoves(b, out);
+	}
+
+	/**
+	 * The moves of b from the cache, generated and added on a miss
+	 */
+	private int[] getCachedMoves(Board b) {
+		long key = b.getZobristKey();
+		int[] moves = moveCache.get(key);
+		if (moves == null) {
+			IntMoveList generated = new IntMoveList();
+			generateAllValidMoves(b, generated);
+			moves = generated.toArray();
+			moveCache.put(key, moves);
+		}
+		return moves;
+	}
+
+	private void generateAllValidMoves(Board b, IntMoveList out) {
+		ChessColor c = b.getActive();
+		out.clear();
+
+		LegalMoveGenerator.CheckInfo info = legalMoves.getCheckInfo(b, c);
+		if (info.isInCheck()) {
+			/* Only look at moves that can get out of check, no castling */
+			legalMoves.addEvasions(b, c, info, out);
+			return;
+		}
+
+		addLegalCastling(b, c, out);
+
+		for (int i = 0; i < b.getPieceCount(c); i++) {
+			legalMoves.addLegalMoves(b, b.getPieceSquare(c, i), c, info, out);
+		}
+	}
+
+	/**
+	 * Get all valid moves for the active color, castling included
+	 *
+	 * @param b
+	 * @return
+	 */
+	public List<ChessMove> getAllValidMoves(Board b) {
+		List<ChessMove> moves = new ArrayList<ChessMove>();
+		getAllValidMoves(b, moves);
+		return moves;
+	}
+
+	/**
+	 * Like {@link #getAllValidMoves(Board)} but reuses out. Checks and pins
+	 * are only looked up once for the whole position. The moves are new
+	 * objects even when cached, use {@link #getAllValidMoves(Board, IntMoveList)}
+	 * to avoid that.
+	 *
+	 * @param b
+	 * @param out cleared and filled with the valid moves
+	 */
+	public void getAllValidMoves(Board b, List<ChessMove> out) {
+		ChessColor c = b.getActive();
+		out.clear();
+
+		if (moveCache != null) {
+			int[] moves = getCachedMoves(b);
+			for (int i = 0; i < moves.length; i++) {
+				out.add(PackedMove.toChessMove(moves[i]));
+			}
+			return;
+		}
+
+		LegalMoveGenerator.CheckInfo info = legalMoves.getCheckInfo(b, c);
+		if (info.isInCheck()) {
+			/* Only look at moves that can get out of check, no castling */
+			legalMoves.addEvasions(b, c, info, out);
+			return;
+		}
+
+		addLegalCastling(b, c, out);
+
+		for (int i = 0; i < b.getPieceCount(c); i++) {
+			BoardPosition from = BoardPosition.get(b.getPieceSquare(c, i));
+			legalMoves.addLegalMoves(b, from, c, info, out);
+		}
+	}
+
+	/**
+	 * Get the legal moves of the active color one at a time, captures first.
+	 * See {@link MovePicker}.
+	 *
+	 * @param b
+	 * @return
+	 */
+	public MovePicker getMovePicker(Board b) {
+		return new MovePicker(this, legalMoves, b);
+	}
+
+	/**
+	 * Add the castlings color c can do to out
+	 */
+	void addLegalCastling(Board b, ChessColor c, List<ChessMove> out) {
+		if (!b.isKingAt(Board.getStartingKingPos(c), c)) {
+			return;
+		}
+
+		ArrayList<ChessMove> castling = new ArrayList<ChessMove>(2);
+		addAvailableCastling(castling, c, b);
+		for (int i = 0; i < castling.size(); i++) {
+			ChessMove m = castling.get(i);
+			if (isCanCastle(b, m)) {
+				out.add(m);
+			}
+		}
+	}
+
+	/**
+	 * Add the castlings color c can do to out, packed
+	 */
+	private void addLegalCastling(Board b, ChessColor c, IntMoveList out) {
+		if (!b.isKingAt(Board.getStartingKingPos(c), c)) {
+			return;
+		}
+
+		Castle kingSide = (c == ChessColor.WHITE) ? Castle.W_KINGSIDE : Castle.B_KINGSIDE;
+		Castle queenSide = (c == ChessColor.WHITE) ? Castle.W_QUEENSIDE : Castle.B_QUEENSIDE;
+		addLegalCastling(b, kingSide, out);
+		addLegalCastling(b, queenSide, out);
+	}
+
+	private void addLegalCastling(Board b, Castle castle, IntMoveList out) {
+		ChessMove m = CASTLE_MOVES[castle.ordinal()];
+		if (b.isCastleAvailable(castle) && isCanCastle(b, m)) {
+			out.add(PackedMove.fromChessMove(m));
+		}
+	}
+
 	private void addAvailableCastling(ArrayList<ChessMove> validMoves,
 									  ChessColor c, Board b) {
-		List<Castle> available = b.getAvailableCastle();
 		if (c == ChessColor.WHITE) {
-			if (available.contains(Castle.W_KINGSIDE)) {
+			if (b.isCastleAvailable(Castle.W_KINGSIDE)) {
 				validMoves.add(new ChessMove(Castle.W_KINGSIDE));
 			}
-			if (available.contains(Castle.W_QUEENSIDE)) {
+			if (b.isCastleAvailable(Castle.W_QUEENSIDE)) {
 				validMoves.add(new ChessMove(Castle.W_QUEENSIDE));
 			}
 		} else {
-			if (available.contains(Castle.B_KINGSIDE)) {
+			if (b.isCastleAvailable(Castle.B_KINGSIDE)) {
 				validMoves.add(new ChessMove(Castle.B_KINGSIDE));
 			}
-			if (available.contains(Castle.B_QUEENSIDE)) {
+			if (b.isCastleAvailable(Castle.B_QUEENSIDE)) {
 				validMoves.add(new ChessMove(Castle.B_QUEENSIDE));
 			}
 		}
@@ -117,11 +324,9 @@ public class ChessRuleStrategy {
 	 * @return
 	 */
 	public boolean doMove(Board b, ChessMove move) {
-		List<ChessMove> validMoves = getValidMoves(b, move.getFrom(),
-													  move.getColor());
-		ChessMove realMove = findValidMove(move, validMoves);
-		if (realMove != null) {
-			executeMove(b, realMove);
+		ChessMove legalMove = getLegalMove(b, move);
+		if (legalMove != null) {
+			executeMove(b, legalMove);
 			return true;
 		} else {
 			return false;
@@ -129,25 +334,165 @@ public class ChessRuleStrategy {
 	}
 
 	/**
-	 * Linear search after a valid move with the same start position such as move.
+	 * Like {@link #doMove(Board, ChessMove)} and fills in diff with the
+	 * squares and state fields the move changed. Castling includes the
+	 * rook, en passant the captured pawn. Empty if the move was illegal.
 	 *
-	 * This is needed as we don't set the enPassant flag from the GUI part
+	 * Clears the changes the board has collected, see {@link Board#clearChanges()}.
 	 *
+	 * @param b
 	 * @param move
-	 * @param validMoves
+	 * @param diff
 	 * @return
 	 */
-	private ChessMove findValidMove(ChessMove move, List<ChessMove> validMoves) {
-		for (int i = 0; i < validMoves.size(); i++) {
-			ChessMove cm = validMoves.get(i);
-			if (cm.isEqualFromAndTo(move)) {
-				cm.setPromotion(move.getPromotion());
-				return cm;
-			}
+	public boolean doMove(Board b, ChessMove move, BoardDiff diff) {
+		ChessMove legalMove = getLegalMove(b, move);
+		if (legalMove == null) {
+			diff.clear();
+			return false;
+		}
+
+		/* Forget the changes left by the previous move, only report this one */
+		b.clearChanges();
+		executeMove(b, legalMove);
+		b.getChanges(diff);
+		return true;
+	}
+
+	/**
+	 * Check if move is legal for the active color. Only move itself is
+	 * checked, no other moves are generated.
+	 *
+	 * @param b
+	 * @param move
+	 * @return
+	 */
+	public boolean isLegal(Board b, ChessMove move) {
+		return getLegalMove(b, move) != null;
+	}
+
+	/**
+	 * Returns the legal move matching move or null if there is none. A new
+	 * move is returned as we don't set the en passant flag from the GUI part
+	 * and castling is given as a king move, e.g. E1 to G1.
+	 *
+	 * @param b
+	 * @param move
+	 * @return
+	 */
+	private ChessMove getLegalMove(Board b, ChessMove move) {
+		ChessColor c = move.getColor();
+		if (c != b.getActive() || move.getFrom() == null || move.getTo() == null) {
+			return null;
+		}
+
+		Castle castle = move.isCastle() ? move.getCastling() : getCastling(b, move);
+		if (castle == Castle.NONE) {
+			return legalMoves.getLegalMove(b, move);
+		}
+
+		ChessMove castleMove = new ChessMove(castle);
+		if (castleMove.getColor() == c &&
+			b.isKingAt(Board.getStartingKingPos(c), c) &&
+			b.isCastleAvailable(castle) &&
+			isCanCastle(b, castleMove)) {
+			return castleMove;
 		}
 		return null;
 	}
 
+	/**
+	 * The castling a king move two squares from its starting position stands
+	 * for or Castle.NONE
+	 */
+	private Castle getCastling(Board b, ChessMove move) {
+		ChessColor c = move.getColor();
+		BoardPosition from = move.getFrom();
+		BoardPosition to = move.getTo();
+		if (!from.equals(Board.getStartingKingPos(c)) || !b.isKingAt(from, c) ||
+			to.getY() != from.getY()) {
+			return Castle.NONE;
+		}
+
+		boolean white = c == ChessColor.WHITE;
+		if (to.getX() == FILE_G) {
+			return white ? Castle.W_KINGSIDE : Castle.B_KINGSIDE;
+		} else if (to.getX() == FILE_C) {
+			return white ? Castle.W_QUEENSIDE : Castle.B_QUEENSIDE;
+		} else {
+			return Castle.NONE;
+		}
+	}
+
+	/**
+	 * Perform a move without controlling if it is legal and remember what is
+	 * needed to take it back with {@link #unmakeMove(Board, MoveUndo)}.
+	 *
+	 * @param b
+	 * @param move
+	 * @param undo filled in with the state before the move
+	 */
+	public void makeMove(Board b, ChessMove move, MoveUndo undo) {
+		undo.move = move;
+		undo.castleRights = b.getCastleRights();
+		undo.enPassantTarget = b.getEnPassantTarget();
+		undo.halfMoveCount = b.getHalfMoveCount();
+
+		if (move.isCastle()) {
+			undo.moved = null;
+			undo.captured = null;
+			undo.capturedAt = null;
+		} else {
+			undo.moved = b.getPieceAt(move.getFrom());
+			if (move.isEnPassant()) {
+				BoardPosition to = move.getTo();
+				undo.capturedAt = BoardPosition.get(to.getX(),
+						to.getY() + (-1) * getOrient(move.getColor()));
+			} else {
+				undo.capturedAt = move.getTo();
+			}
+			undo.captured = b.getPieceAt(undo.capturedAt);
+		}
+
+		executeMove(b, move);
+	}
+
+	/**
+	 * Take back the last move made with {@link #makeMove(Board, ChessMove, MoveUndo)}
+	 *
+	 * @param b
+	 * @param undo
+	 */
+	public void unmakeMove(Board b, MoveUndo undo) {
+		ChessMove move = undo.move;
+
+		b.toggleActive();
+
+		if (move.isCastle()) {
+			unmakeCastle(b, move);
+		} else {
+			b.setEmptyAt(move.getTo());
+			b.setPieceAt(move.getFrom(), undo.moved);
+			b.setPieceAt(undo.capturedAt, undo.captured);
+		}
+
+		b.setCastleRights(undo.castleRights);
+		b.setEnPassantTarget(undo.enPassantTarget);
+		b.setHalfMoveCount(undo.halfMoveCount);
+	}
+
+	private void unmakeCastle(Board b, ChessMove move) {
+		int rank = getHomeRank(move.getColor());
+
+		if (Castle.isKingSide(move.getCastling())) {
+			b.movePiece(BoardPosition.get(FILE_G, rank), BoardPosition.get(FILE_E, rank));
+			b.movePiece(BoardPosition.get(FILE_F, rank), BoardPosition.get(FILE_H, rank));
+		} else {
+			b.movePiece(BoardPosition.get(FILE_C, rank), BoardPosition.get(FILE_E, rank));
+			b.movePiece(BoardPosition.get(FILE_D, rank), BoardPosition.get(FILE_A, rank));
+		}
+	}
+
 	/**
 	 * Perform a move without controlling if it is legal
 	 *
@@ -258,54 +603,43 @@ public class ChessRuleStrategy {
 		}
 	}
 
+	/**
+	 * The rank (y) the king and rooks start on
+	 */
+	private int getHomeRank(ChessColor c) {
+		if (c == ChessColor.WHITE) {
+			return 7;
+		} else {
+			return 0;
+		}
+	}
+
 	private void executeKingsideCastling(Board b, ChessMove move) {
 		ChessColor c = move.getColor();
-		BoardPosition kingFrom;
-		BoardPosition rookFrom;
-		BoardPosition kingTo;
-		BoardPosition rookTo;
+		int rank = getHomeRank(c);
 
 		if (c == ChessColor.WHITE) {
-			kingFrom = new BoardPosition("E1");
-			rookFrom = new BoardPosition("H1");
-			kingTo = new BoardPosition("G1");
-			rookTo = new BoardPosition("F1");
 			b.removeAvailableCastle(Castle.W_KINGSIDE);
 		} else {
-			kingFrom = new BoardPosition("E8");
-			rookFrom = new BoardPosition("H8");
-			kingTo = new BoardPosition("G8");
-			rookTo = new BoardPosition("F8");
 			b.removeAvailableCastle(Castle.B_KINGSIDE);
 		}
 
-		b.movePiece(kingFrom, kingTo);
-		b.movePiece(rookFrom, rookTo);
+		b.movePiece(BoardPosition.get(FILE_E, rank), BoardPosition.get(FILE_G, rank));
+		b.movePiece(BoardPosition.get(FILE_H, rank), BoardPosition.get(FILE_F, rank));
 	}
 
 	private void executeQueensideCastling(Board b, ChessMove move) {
 		ChessColor c = move.getColor();
-		BoardPosition kingFrom;
-		BoardPosition rookFrom;
-		BoardPosition kingTo;
-		BoardPosition rookTo;
+		int rank = getHomeRank(c);
 
 		if (c == ChessColor.WHITE) {
-			kingFrom = new BoardPosition("E1");
-			rookFrom = new BoardPosition("A1");
-			kingTo = new BoardPosition("C1");
-			rookTo = new BoardPosition("D1");
 			b.removeAvailableCastle(Castle.W_QUEENSIDE);
 		} else {
-			kingFrom = new BoardPosition("E8");
-			rookFrom = new BoardPosition("A8");
-			kingTo = new BoardPosition("C8");
-			rookTo = new BoardPosition("D8");
 			b.removeAvailableCastle(Castle.B_QUEENSIDE);
 		}
 
-		b.movePiece(kingFrom, kingTo);
-		b.movePiece(rookFrom, rookTo);
+		b.movePiece(BoardPosition.get(FILE_E, rank), BoardPosition.get(FILE_C, rank));
+		b.movePiece(BoardPosition.get(FILE_A, rank), BoardPosition.get(FILE_D, rank));
 	}
 
 	private void updateEnPassantTarget(Board b, ChessMove move) {
@@ -321,7 +655,7 @@ public class ChessRuleStrategy {
 			} else {
 				dir = 1;
 			}
-			BoardPosition singleStep = new BoardPosition(from.getX(), from.getY() + dir);
+			BoardPosition singleStep = BoardPosition.get(from.getX(), from.getY() + dir);
 			b.setEnPassantTarget(singleStep);
 		}
 	}
@@ -361,15 +695,10 @@ public class ChessRuleStrategy {
 	 * @return
 	 */
 	private boolean isCanCastle(Board b, ChessMove move) {
-		List<ChessMove> moves = getAllMoves(b, ChessColor.getOpponent(move.getColor()));
+		ChessColor opponent = ChessColor.getOpponent(move.getColor());
 
 		/* King rank */
-		String rank = null;
-		if (move.getColor() == ChessColor.WHITE) {
-			rank = "1";
-		} else {
-			rank = "8";
-		}
+		int rank = getHomeRank(move.getColor());
 
 		/* Check condition 1 */
 		if (!isBetweenSquaresEmtpy(b, rank, move)) {
@@ -378,34 +707,25 @@ public class ChessRuleStrategy {
 
 		/* Is the forbidden squares in check? */
 		/* Condition 2-4 */
-		BoardPosition[] forbidden = new BoardPosition[3];
-		forbidden[0] = new BoardPosition("E" + rank);
-		if (Castle.isKingSide(move.getCastling())) {
-			forbidden[1] = new BoardPosition("F" + rank);
-			forbidden[2] = new BoardPosition("G" + rank);
-		} else {
-			forbidden[1] = new BoardPosition("D" + rank);
-			forbidden[2] = new BoardPosition("C" + rank);
-		}
-
-		for (ChessMove m : moves) {
-			BoardPosition to = m.getTo();
-			/* If the opponent can move to a forbidden square */
-			if (Arrays.asList(forbidden).contains(to))
+		int direction = Castle.isKingSide(move.getCastling()) ? 1 : -1;
+		for (int i = 0; i < 3; i++) {
+			int square = BoardPosition.get(FILE_E + i * direction, rank).getIndex();
+			if (isSquareAttacked(b, square, opponent)) {
 				return false;
+			}
 		}
 
 		/* Condition 1-4 holds */
 		return true;
 	}
 
-	private boolean isBetweenSquaresEmtpy(Board b, String rank, ChessMove move) {
-		boolean queenEmpty = b.isEmptyAt("B" + rank) &&
-							 b.isEmptyAt("C" + rank) &&
-							 b.isEmptyAt("D" + rank);
+	private boolean isBetweenSquaresEmtpy(Board b, int rank, ChessMove move) {
+		boolean queenEmpty = b.isEmptyAt(FILE_B, rank) &&
+							 b.isEmptyAt(FILE_C, rank) &&
+							 b.isEmptyAt(FILE_D, rank);
 
-		boolean kingEmpty =  b.isEmptyAt("F" + rank) &&
-				 			 b.isEmptyAt("G" + rank);
+		boolean kingEmpty =  b.isEmptyAt(FILE_F, rank) &&
+				 			 b.isEmptyAt(FILE_G, rank);
 
 		if (Castle.isKingSide(move.getCastling())) {
 			return kingEmpty;
@@ -416,59 +736,54 @@ public class ChessRuleStrategy {
 
 	private boolean isInCheckAfterMove(Board b, ChessMove move) {
 		/* Check if activeColor is in check after move */
-		Board copy = new Board(b);
-		executeMove(copy, move);
-		List<ChessMove> opponentMoves =
-				getAllMoves(copy, ChessColor.getOpponent(move.getColor()));
+		MoveUndo undo = new MoveUndo();
+		makeMove(b, move, undo);
 
-		if (containsKingCapture(copy, move.getColor(), opponentMoves)) {
-			return true;
-		} else {
-			return false;
-		}
+		boolean inCheck = isKingAttacked(b, move.getColor());
+		unmakeMove(b, undo);
+		return inCheck;
 	}
 
-	private boolean containsKingCapture(Board b,
-										ChessColor c,
-										List<ChessMove> opponentMoves) {
-
-		BoardPosition kingPos = b.findKing(c);
-		if (kingPos != null) {
-			for (ChessMove move : opponentMoves) {
-				if (move.getTo().equals(kingPos)) {
-					return true;
-				}
-			}
+	/**
+	 * Is the king of color c attacked? False if there is no such king.
+	 */
+	private boolean isKingAttacked(Board b, ChessColor c) {
+		int square = b.getKingSquare(c);
+		if (square == -1) {
+			return false;
 		}
-		return false;
+		return isSquareAttacked(b, square, ChessColor.getOpponent(c));
 	}
 
-	private List<ChessMove> getMoves(Board b,
-								     BoardPosition from,
-								     ChessColor c) {
-
-		ArrayList<ChessMove> moves = new ArrayList<ChessMove>();
-		ChessPiece cp = b.getPieceAt(from);
-		if (cp != null && cp.isColor(c)) {
-			ChessPieceStrategy cps = pieceStrategies.get(cp);
-			moves.addAll(cps.getValid(b, from, c));
+	/**
+	 * Check if any piece of color byColor attacks square. Works backwards from
+	 * square, e.g. there is a knight attacker if a knight placed at square
+	 * would attack a knight of color byColor. Looked up in the attack maps
+	 * of the board when they are enabled.
+	 *
+	 * @param b
+	 * @param square index of the square, see {@link BoardPosition#getIndex()}
+	 * @param byColor
+	 * @return
+	 */
+	public boolean isSquareAttacked(Board b, int square, ChessColor byColor) {
+		AttackMap map = b.getAttackMap();
+		if (map != null) {
+			return (map.getAttacked(byColor) & (1L << square)) != 0;
 		}
-		return moves;
+		return getAttackers(b, square, byColor) != 0;
 	}
 
-	private List<ChessMove> getAllMoves(Board b, ChessColor c) {
-		ArrayList<ChessMove> moves = new ArrayList<ChessMove>();
-
-		for (int i = 0; i < b.getSize(); i++) {
-			for (int j = 0; j < b.getSize(); j++) {
-				BoardPosition from = new BoardPosition(i, j);
-				ChessPiece cp = b.getPieceAt(from);
-				if (cp != null && cp.isColor(c)) {
-					moves.addAll(getMoves(b, from, c));
-				}
-			}
-		}
-		return moves;
+	/**
+	 * Returns a bitboard with the pieces of color byColor attacking square
+	 *
+	 * @param b
+	 * @param square
+	 * @param byColor
+	 * @return
+	 */
+	public long getAttackers(Board b, int square, ChessColor byColor) {
+		return LegalMoveGenerator.getAttackers(b, square, byColor, b.getOccupied());
 	}
 
 	private boolean isPawnPromotionMove(ChessMove m, Board b) {
@@ -495,38 +810,132 @@ public class ChessRuleStrategy {
 		}
 	}
 
-	private void register(ChessPiece cp, ChessPieceStrategy s) {
-		pieceStrategies.put(cp, s);
+	/**
+	 * Is the active color in check?
+	 *
+	 * @param b
+	 * @return
+	 */
+	public boolean isInCheck(Board b) {
+		return isKingAttacked(b, b.getActive());
 	}
 
 	/**
-	 * Check if the game is over. Returns null if there is no outcome yet. 
-	 * 
+	 * Does the active color have a legal move? Faster than generating all
+	 * moves as it stops at the first one found.
+	 *
 	 * @param b
 	 * @return
 	 */
-	public GameResult getResults(Board b) {
-		ArrayList<ChessMove> moves = new ArrayList<ChessMove>();
+	public boolean hasAnyLegalMove(Board b) {
 		ChessColor c = b.getActive();
-		for (int i = 0; i < b.getSize(); i++) {
-			for (int j = 0; j < b.getSize(); j++) {
-				BoardPosition from = 
-						new BoardPosition(i, j); 
-				moves.addAll(getValidMoves(b, from, c));
+		return legalMoves.hasLegalMove(b, c, legalMoves.getCheckInfo(b, c));
+	}
+
+	/**
+	 * Check how the game ended. Returns null if there is no outcome yet.
+	 *
+	 * @param b
+	 * @return
+	 */
+	public Termination getTermination(Board b) {
+		return getTermination(b, null);
+	}
+
+	/**
+	 * Check how the game ended, repetitions included. Returns null if there
+	 * is no outcome yet.
+	 *
+	 * @param b
+	 * @param history the positions of the game, b last. May be null.
+	 * @return
+	 */
+	public Termination getTermination(Board b, PositionHistory history) {
+		ChessColor c = b.getActive();
+		LegalMoveGenerator.CheckInfo info = legalMoves.getCheckInfo(b, c);
+
+		if (!legalMoves.hasLegalMove(b, c, info)) {
+			if (info.isInCheck()) {
+				return Termination.CHECKMATE;
+			} else {
+				return Termination.STALEMATE;
 			}
 		}
-		
-		if (moves.size() == 0) {
-			return GameResult.
-					winner(ChessColor.getOpponent(c));
+
+		/* 75 moves rule */
+		if (b.getHalfMoveCount() >= 150) {
+			return Termination.SEVENTY_FIVE_MOVE_RULE;
 		}
-		
+
+		if (history != null) {
+			int repetitions = history.getRepetitions(b.getHalfMoveCount());
+			if (repetitions >= 5) {
+				return Termination.FIVEFOLD_REPETITION;
+			} else if (repetitions >= 3) {
+				return Termination.THREEFOLD_REPETITION;
+			}
+		}
+
 		/* 50 moves rule */
 		if (b.getHalfMoveCount() == 100) {
-			return GameResult.DRAW;
+			return Termination.FIFTY_MOVE_RULE;
 		}
-		
+
+		if (isInsufficientMaterial(b)) {
+			return Termination.INSUFFICIENT_MATERIAL;
+		}
+
 		return null;
 	}
 
+	/**
+	 * Check if neither side can mate. That is king against king and at most
+	 * one knight or bishop, or only bishops all on squares of the same color.
+	 *
+	 * @param b
+	 * @return
+	 */
+	public boolean isInsufficientMaterial(Board b) {
+		long heavy = b.getBitboard(ChessPiece.W_PAWN) | b.getBitboard(ChessPiece.B_PAWN) |
+					 b.getBitboard(ChessPiece.W_ROOK) | b.getBitboard(ChessPiece.B_ROOK) |
+					 b.getBitboard(ChessPiece.W_QUEEN) | b.getBitboard(ChessPiece.B_QUEEN);
+		if (heavy != 0) {
+			return false;
+		}
+
+		long knights = b.getBitboard(ChessPiece.W_KNIGHT) | b.getBitboard(ChessPiece.B_KNIGHT);
+		long bishops = b.getBitboard(ChessPiece.W_BISHOP) | b.getBitboard(ChessPiece.B_BISHOP);
+		if (Long.bitCount(knights | bishops) <= 1) {
+			return true;
+		}
+
+		return knights == 0 &&
+			   ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+	}
+
+	/**
+	 * Check if the game is over. Returns null if there is no outcome yet. 
+	 * 
+	 * @param b
+	 * @return
+	 */
+	public GameResult getResults(Board b) {
+		return getResults(b, null);
+	}
+
+	/**
+	 * Like {@link #getResults(Board)} but also checks for repetitions
+	 *
+	 * @param b
+	 * @param history the positions of the game, b last. May be null.
+	 * @return
+	 */
+	public GameResult getResults(Board b, PositionHistory history) {
+		Termination t = getTermination(b, history);
+		if (t == null) {
+			return null;
+		}
+		return t.getResult(b.getActive());
+	}
+
 }
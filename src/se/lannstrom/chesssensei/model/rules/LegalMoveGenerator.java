@@ -0,0 +1,687 @@
+package se.lannstrom.chesssensei.model.rules;
+
+import java.util.List;
+
+import se.lannstrom.chesssensei.model.AttackMap;
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.IntMoveList;
+import se.lannstrom.chesssensei.model.PackedMove;
+
+/**
+ * Generates legal moves, castling excluded.
+ *
+ * The checkers and pinned pieces are found once per position and kept in a
+ * {@link CheckInfo}. The targets of each piece are looked up in
+ * {@link AttackTables} by piece type and filtered with bit masks instead
+ * of executing every move and looking for checks:
+ * 		- in double check only the king may move
+ * 		- in single check other pieces must capture the checker or block
+ * 		- a pinned piece must stay on the line through the king and the pinner
+ * 		- the king may not move to an attacked square
+ * En passant removes two pieces from a rank, so it is checked by looking
+ * for attacks on the king with both pawns removed.
+ */
+public class LegalMoveGenerator {
+
+	/**
+	 * Checkers and pins of the king of one color
+	 */
+	public static class CheckInfo {
+		/* -1 if there is no king */
+		int kingSquare = -1;
+		long checkers;
+		long pinned;
+		/* Squares a piece other than the king may move to */
+		long checkMask = ~0L;
+
+		public boolean isInCheck() {
+			return checkers != 0;
+		}
+
+		public boolean isDoubleCheck() {
+			return Long.bitCount(checkers) > 1;
+		}
+
+		public long getCheckers() {
+			return checkers;
+		}
+
+		public long getPinned() {
+			return pinned;
+		}
+	}
+
+	/**
+	 * Find the checkers and pinned pieces of color c
+	 *
+	 * @param b
+	 * @param c
+	 * @return
+	 */
+	public CheckInfo getCheckInfo(Board b, ChessColor c) {
+		CheckInfo info = new CheckInfo();
+		int king = b.getKingSquare(c);
+		if (king == -1) {
+			/* No king, nothing to protect */
+			return info;
+		}
+
+		ChessColor opponent = ChessColor.getOpponent(c);
+		long occupied = b.getOccupied();
+		info.kingSquare = king;
+		AttackMap map = b.getAttackMap();
+		if (map == null || map.getAttackerCount(opponent, king) != 0) {
+			info.checkers = getAttackers(b, king, opponent, occupied);
+		}
+
+		if (info.checkers != 0 && !info.isDoubleCheck()) {
+			int checker = Long.numberOfTrailingZeros(info.checkers);
+			info.checkMask = info.checkers | AttackTables.between(king, checker);
+		} else if (info.isDoubleCheck()) {
+			info.checkMask = 0;
+		}
+
+		/* Opponent sliders that would attack the king through one of our pieces */
+		boolean white = opponent == ChessColor.WHITE;
+		long queens = b.getBitboard(white ? ChessPiece.W_QUEEN : ChessPiece.B_QUEEN);
+		long rooks = b.getBitboard(white ? ChessPiece.W_ROOK : ChessPiece.B_ROOK) | queens;
+		long bishops = b.getBitboard(white ? ChessPiece.W_BISHOP : ChessPiece.B_BISHOP) | queens;
+		long snipers = (AttackTables.rookAttacks(king, 0) & rooks) |
+					   (AttackTables.bishopAttacks(king, 0) & bishops);
+		long own = b.getColorBitboard(c);
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+
+			long blockers = AttackTables.between(king, sniper) & occupied;
+			if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+				info.pinned |= blockers;
+			}
+		}
+
+		return info;
+	}
+
+	/**
+	 * Add the legal moves of the piece of color c at from to out
+	 *
+	 * @param b
+	 * @param from
+	 * @param c
+	 * @param info the CheckInfo of color c in b
+	 * @param out
+	 */
+	public void addLegalMoves(Board b, BoardPosition from, ChessColor c,
+							  CheckInfo info, List<ChessMove> out) {
+		int square = from.getIndex();
+		ChessPiece cp = b.getPieceAt(square);
+		if (cp == null || !cp.isColor(c)) {
+			return;
+		}
+
+		long targets = getLegalTargets(b, c, info, square, getPseudoTargets(b, cp, c, square));
+		AttackTables.addMoves(out, from, targets, c);
+
+		int enPassant = cp.isPawn() ? getLegalEnPassant(b, c, square) : -1;
+		if (enPassant != -1) {
+			out.add(new ChessMove(from, BoardPosition.get(enPassant), c, true));
+		}
+	}
+
+	/**
+	 * Like {@link #addLegalMoves(Board, BoardPosition, ChessColor, CheckInfo, List)}
+	 * but with moves packed with {@link PackedMove}. Nothing is allocated
+	 * once out has grown to its working size.
+	 *
+	 * @param b
+	 * @param from square index, see {@link BoardPosition#getIndex()}
+	 * @param c
+	 * @param info the CheckInfo of color c in b
+	 * @param out
+	 */
+	public void addLegalMoves(Board b, int from, ChessColor c, CheckInfo info,
+							  IntMoveList out) {
+		ChessPiece cp = b.getPieceAt(from);
+		if (cp == null || !cp.isColor(c)) {
+			return;
+		}
+
+		long targets = getLegalTargets(b, c, info, from, getPseudoTargets(b, cp, c, from));
+		AttackTables.addMoves(out, from, targets, c);
+
+		int enPassant = cp.isPawn() ? getLegalEnPassant(b, c, from) : -1;
+		if (enPassant != -1) {
+			out.add(PackedMove.encode(from, enPassant, c, PackedMove.FLAG_EN_PASSANT));
+		}
+	}
+
+	/**
+	 * The squares the piece cp at from attacks or can move to, not counting
+	 * en passant and the safety of the king
+	 */
+	private long getPseudoTargets(Board b, ChessPiece cp, ChessColor c, int from) {
+		long occupied = b.getOccupied();
+		if (cp.isPawn()) {
+			long opponent = b.getColorBitboard(ChessColor.getOpponent(c));
+			return (getTargets(cp, c, from, occupied, false) & ~occupied) |
+				   (AttackTables.pawnAttacks(c, from) & opponent);
+		}
+		return getTargets(cp, c, from, occupied, true) & ~b.getColorBitboard(c);
+	}
+
+	/**
+	 * The en passant target square if the pawn of color c at from may
+	 * capture en passant, otherwise -1
+	 */
+	private int getLegalEnPassant(Board b, ChessColor c, int from) {
+		BoardPosition target = b.getEnPassantTarget();
+		if (target == null) {
+			return -1;
+		}
+
+		int to = target.getIndex();
+		if (isEnPassant(b, c, from, to) &&
+			isKingSafeAfter(b, c, from, to, getEnPassantCaptured(from, to))) {
+			return to;
+		}
+		return -1;
+	}
+
+	/**
+	 * Add all legal moves of color c when it is in check. Only moves that
+	 * can get out of check are looked at:
+	 * 		- king moves to squares that aren't attacked
+	 * 		- captures of the checker, found by looking up its attackers
+	 * 		- moves to the squares between the king and a checking slider
+	 * Pinned pieces can never help, neither can anything but the king in
+	 * double check.
+	 *
+	 * @param b
+	 * @param c
+	 * @param info the CheckInfo of color c in b, must be in check
+	 * @param out
+	 */
+	public void addEvasions(Board b, ChessColor c, CheckInfo info, List<ChessMove> out) {
+		IntMoveList packed = new IntMoveList();
+		addEvasions(b, c, info, packed);
+		for (int i = 0; i < packed.size(); i++) {
+			out.add(PackedMove.toChessMove(packed.get(i)));
+		}
+	}
+
+	/**
+	 * Like {@link #addEvasions(Board, ChessColor, CheckInfo, List)} but with
+	 * moves packed with {@link PackedMove}
+	 *
+	 * @param b
+	 * @param c
+	 * @param info the CheckInfo of color c in b, must be in check
+	 * @param out
+	 */
+	public void addEvasions(Board b, ChessColor c, CheckInfo info, IntMoveList out) {
+		ChessColor opponent = ChessColor.getOpponent(c);
+		int king = info.kingSquare;
+		long own = b.getColorBitboard(c);
+		long occupied = b.getOccupied();
+
+		/* King moves, the king may not hide behind itself from a slider */
+		long targets = AttackTables.kingAttacks(king) & ~own;
+		long withoutKing = occupied & ~(1L << king);
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if (getAttackers(b, to, opponent, withoutKing) == 0) {
+				out.add(PackedMove.encode(king, to, c, 0));
+			}
+		}
+
+		if (info.isDoubleCheck()) {
+			return;
+		}
+
+		long movers = own & ~(1L << king) & ~info.pinned;
+		int checker = Long.numberOfTrailingZeros(info.checkers);
+
+		/* Capture the checker */
+		addMovesTo(getAttackers(b, checker, c, occupied) & movers, checker, c, out);
+
+		/* Block the check */
+		long blocks = AttackTables.between(king, checker);
+		while (blocks != 0) {
+			int to = Long.numberOfTrailingZeros(blocks);
+			blocks &= blocks - 1;
+			addMovesTo(getBlockers(b, to, c, occupied) & movers, to, c, out);
+		}
+
+		/* En passant may capture the checker or block by the target square */
+		BoardPosition target = b.getEnPassantTarget();
+		if (target != null) {
+			int to = target.getIndex();
+			long pawns = AttackTables.pawnAttacks(opponent, to) & b.getBitboard(getPawn(c));
+			while (pawns != 0) {
+				int from = Long.numberOfTrailingZeros(pawns);
+				pawns &= pawns - 1;
+				if (isEnPassant(b, c, from, to) &&
+					isKingSafeAfter(b, c, from, to, getEnPassantCaptured(from, to))) {
+					out.add(PackedMove.encode(from, to, c, PackedMove.FLAG_EN_PASSANT));
+				}
+			}
+		}
+	}
+
+	private void addMovesTo(long pieces, int to, ChessColor c, IntMoveList out) {
+		int flags = (c == ChessColor.BLACK) ? PackedMove.FLAG_BLACK : 0;
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			out.add(PackedMove.encode(from, to, flags));
+		}
+	}
+
+	/**
+	 * Pieces of color c, the king excluded, that can move to the empty
+	 * square to. Pawns push so they are looked up behind to.
+	 */
+	private long getBlockers(Board b, int to, ChessColor c, long occupied) {
+		boolean white = c == ChessColor.WHITE;
+		long queens = b.getBitboard(white ? ChessPiece.W_QUEEN : ChessPiece.B_QUEEN);
+		long rooks = b.getBitboard(white ? ChessPiece.W_ROOK : ChessPiece.B_ROOK) | queens;
+		long bishops = b.getBitboard(white ? ChessPiece.W_BISHOP : ChessPiece.B_BISHOP) | queens;
+		long knights = b.getBitboard(white ? ChessPiece.W_KNIGHT : ChessPiece.B_KNIGHT);
+
+		long blockers = (AttackTables.knightAttacks(to) & knights) |
+						(AttackTables.rookAttacks(to, occupied) & rooks) |
+						(AttackTables.bishopAttacks(to, occupied) & bishops);
+
+		/* White moves towards square 0 */
+		long pawns = b.getBitboard(getPawn(c));
+		int forward = white ? -8 : 8;
+		int single = to - forward;
+		if (single >= 0 && single < 64) {
+			if ((pawns & (1L << single)) != 0) {
+				blockers |= 1L << single;
+			} else if ((occupied & (1L << single)) == 0) {
+				int doubleStep = single - forward;
+				int y = doubleStep >> 3;
+				if (y == (white ? 6 : 1) && (pawns & (1L << doubleStep)) != 0) {
+					blockers |= 1L << doubleStep;
+				}
+			}
+		}
+		return blockers;
+	}
+
+	/**
+	 * Check that the king of color c isn't attacked after moving from to to
+	 * and capturing on captured, which is to except for en passant.
+	 *
+	 * Works on the occupancy only, the board is not changed.
+	 */
+	private boolean isKingSafeAfter(Board b, ChessColor c, int from, int to, int captured) {
+		int king = b.getKingSquare(c);
+		if (king == -1) {
+			return true;
+		} else if (king == from) {
+			king = to;
+		}
+
+		long fromBit = 1L << from;
+		long capturedBit = 1L << captured;
+		long occupied = (b.getOccupied() & ~fromBit & ~capturedBit) | (1L << to);
+
+		ChessColor opponent = ChessColor.getOpponent(c);
+		return (getAttackers(b, king, opponent, occupied) & ~capturedBit) == 0;
+	}
+
+	/**
+	 * Check a single move, castling excluded. The move is checked
+	 * geometrically for the piece at from and then for the safety of the king,
+	 * no other moves are generated.
+	 *
+	 * @param b
+	 * @param move
+	 * @return a copy of move with the en passant flag set if needed or null
+	 * 		   if the move is illegal
+	 */
+	public ChessMove getLegalMove(Board b, ChessMove move) {
+		ChessColor c = move.getColor();
+		int from = move.getFrom().getIndex();
+		int to = move.getTo().getIndex();
+		ChessPiece cp = b.getPieceAt(from);
+		if (cp == null || !cp.isColor(c)) {
+			return null;
+		}
+
+		long toBit = 1L << to;
+		boolean enPassant = cp.isPawn() && isEnPassant(b, c, from, to);
+		long targets = getPseudoTargets(b, cp, c, from);
+		if (enPassant) {
+			targets |= toBit;
+		}
+
+		if ((targets & toBit) == 0) {
+			return null;
+		}
+
+		int captured = enPassant ? getEnPassantCaptured(from, to) : to;
+		if (!isKingSafeAfter(b, c, from, to, captured)) {
+			return null;
+		}
+
+		ChessMove legal = new ChessMove(move);
+		legal.setEnPassant(enPassant);
+		return legal;
+	}
+
+	/**
+	 * Is the pawn move from from to to of color c an en passant capture?
+	 */
+	private boolean isEnPassant(Board b, ChessColor c, int from, int to) {
+		BoardPosition target = b.getEnPassantTarget();
+		if (target == null || target.getIndex() != to) {
+			return false;
+		}
+
+		ChessColor opponent = ChessColor.getOpponent(c);
+		return (AttackTables.pawnAttacks(c, from) & (1L << to)) != 0 &&
+			   !b.isMineAt(to, opponent) &&
+			   b.isMineAt(getEnPassantCaptured(from, to), opponent);
+	}
+
+	private static int getEnPassantCaptured(int from, int to) {
+		return (from & ~7) | (to & 7);
+	}
+
+	/**
+	 * Check if color c has any legal move. Stops at the first one found,
+	 * trying the cheapest first: king moves, captures and then the rest.
+	 *
+	 * Castling is never needed, if castling is legal the king can also step
+	 * to the square next to it.
+	 *
+	 * @param b
+	 * @param c
+	 * @param info the CheckInfo of color c in b
+	 * @return
+	 */
+	public boolean hasLegalMove(Board b, ChessColor c, CheckInfo info) {
+		ChessColor opponent = ChessColor.getOpponent(c);
+		long own = b.getColorBitboard(c);
+		long enemy = b.getColorBitboard(opponent);
+		long occupied = own | enemy;
+
+		/* King moves */
+		int king = info.kingSquare;
+		if (king != -1) {
+			long targets = AttackTables.kingAttacks(king) & ~own;
+			long withoutKing = occupied & ~(1L << king);
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				if (getAttackers(b, to, opponent, withoutKing) == 0) {
+					return true;
+				}
+			}
+		}
+
+		if (info.isDoubleCheck()) {
+			return false;
+		}
+
+		/* Captures and then quiet moves */
+		long pieces = own & ~(king != -1 ? 1L << king : 0);
+		if (hasMoveTo(b, c, pieces, info, enemy, occupied, true) ||
+			hasEnPassant(b, c)) {
+			return true;
+		}
+		return hasMoveTo(b, c, pieces, info, ~occupied, occupied, false);
+	}
+
+	/**
+	 * Does any of pieces have a legal move to a square in targets? Pawns
+	 * only capture if captures is set and only push otherwise.
+	 */
+	private boolean hasMoveTo(Board b, ChessColor c, long pieces, CheckInfo info,
+							  long targets, long occupied, boolean captures) {
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+
+			long moves = getTargets(b.getPieceAt(from), c, from, occupied, captures) &
+						 targets & info.checkMask;
+			if ((info.pinned & (1L << from)) != 0) {
+				moves &= AttackTables.line(info.kingSquare, from);
+			}
+			if (moves != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add the legal captures of color c, en passant and capturing
+	 * promotions included
+	 *
+	 * @param b
+	 * @param c
+	 * @param info the CheckInfo of color c in b
+	 * @param out
+	 */
+	void addCaptures(Board b, ChessColor c, CheckInfo info, List<ChessMove> out) {
+		long enemy = b.getColorBitboard(ChessColor.getOpponent(c));
+		long occupied = b.getOccupied();
+		long pieces = b.getColorBitboard(c);
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+
+			ChessPiece cp = b.getPieceAt(from);
+			long attacks = cp.isPawn() ? AttackTables.pawnAttacks(c, from) :
+										 getTargets(cp, c, from, occupied, true);
+			long targets = getLegalTargets(b, c, info, from, attacks & enemy);
+			AttackTables.addMoves(out, BoardPosition.get(from), targets, c);
+		}
+
+		BoardPosition target = b.getEnPassantTarget();
+		if (target != null) {
+			int to = target.getIndex();
+			long pawns = AttackTables.pawnAttacks(ChessColor.getOpponent(c), to) &
+						 b.getBitboard(getPawn(c));
+			while (pawns != 0) {
+				int from = Long.numberOfTrailingZeros(pawns);
+				pawns &= pawns - 1;
+				if (isEnPassant(b, c, from, to) &&
+					isKingSafeAfter(b, c, from, to, getEnPassantCaptured(from, to))) {
+					out.add(new ChessMove(BoardPosition.get(from), target, c, true));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add the legal pawn pushes of color c to the last rank
+	 *
+	 * @param b
+	 * @param c
+	 * @param info the CheckInfo of color c in b
+	 * @param out
+	 */
+	void addPromotions(Board b, ChessColor c, CheckInfo info, List<ChessMove> out) {
+		addPawnPushes(b, c, info, getLastRank(c), out);
+	}
+
+	/**
+	 * Add the legal moves of color c that neither capture nor promote,
+	 * castling excluded
+	 *
+	 * @param b
+	 * @param c
+	 * @param info the CheckInfo of color c in b
+	 * @param out
+	 */
+	void addQuiets(Board b, ChessColor c, CheckInfo info, List<ChessMove> out) {
+		long occupied = b.getOccupied();
+		long pieces = b.getColorBitboard(c) & ~b.getBitboard(getPawn(c));
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+
+			long targets = getTargets(b.getPieceAt(from), c, from, occupied, false) & ~occupied;
+			targets = getLegalTargets(b, c, info, from, targets);
+			AttackTables.addMoves(out, BoardPosition.get(from), targets, c);
+		}
+
+		addPawnPushes(b, c, info, ~getLastRank(c), out);
+	}
+
+	private void addPawnPushes(Board b, ChessColor c, CheckInfo info, long allowed,
+							   List<ChessMove> out) {
+		ChessPiece pawn = getPawn(c);
+		long occupied = b.getOccupied();
+		long pawns = b.getBitboard(pawn);
+		while (pawns != 0) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+
+			long targets = getTargets(pawn, c, from, occupied, false) & ~occupied & allowed;
+			targets = getLegalTargets(b, c, info, from, targets);
+			AttackTables.addMoves(out, BoardPosition.get(from), targets, c);
+		}
+	}
+
+	/**
+	 * The squares in targets the piece at from may move to without leaving
+	 * the king attacked. Not for en passant.
+	 */
+	private long getLegalTargets(Board b, ChessColor c, CheckInfo info, int from,
+								 long targets) {
+		if (from == info.kingSquare) {
+			long occupied = b.getOccupied() & ~(1L << from);
+			ChessColor opponent = ChessColor.getOpponent(c);
+			long safe = 0;
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				if (getAttackers(b, to, opponent, occupied) == 0) {
+					safe |= 1L << to;
+				}
+			}
+			return safe;
+		}
+
+		targets &= info.checkMask;
+		if ((info.pinned & (1L << from)) != 0) {
+			targets &= AttackTables.line(info.kingSquare, from);
+		}
+		return targets;
+	}
+
+	/* The rank pawns of color c promote on, white moves towards square 0 */
+	private static long getLastRank(ChessColor c) {
+		if (c == ChessColor.WHITE) {
+			return 0xFFL;
+		} else {
+			return 0xFF00000000000000L;
+		}
+	}
+
+	private long getTargets(ChessPiece cp, ChessColor c, int from, long occupied,
+							boolean captures) {
+		if (cp.isPawn()) {
+			if (captures) {
+				return AttackTables.pawnAttacks(c, from);
+			}
+			/*
+			 * Pushes, white moves towards square 0. The double step is
+			 * removed by the caller if that square is occupied.
+			 */
+			int forward = (c == ChessColor.WHITE) ? -8 : 8;
+			int single = from + forward;
+			if (single < 0 || single > 63 || (occupied & (1L << single)) != 0) {
+				return 0;
+			}
+			long targets = 1L << single;
+			int y = from >> 3;
+			if (y == (c == ChessColor.WHITE ? 6 : 1)) {
+				targets |= 1L << (single + forward);
+			}
+			return targets;
+		}
+
+		switch (cp.getType()) {
+		case KNIGHT:
+			return AttackTables.knightAttacks(from);
+		case BISHOP:
+			return AttackTables.bishopAttacks(from, occupied);
+		case ROOK:
+			return AttackTables.rookAttacks(from, occupied);
+		case QUEEN:
+			return AttackTables.queenAttacks(from, occupied);
+		default:
+			return AttackTables.kingAttacks(from);
+		}
+	}
+
+	private boolean hasEnPassant(Board b, ChessColor c) {
+		BoardPosition target = b.getEnPassantTarget();
+		if (target == null) {
+			return false;
+		}
+
+		int to = target.getIndex();
+		long pawns = b.getBitboard(getPawn(c));
+		/* Pawns of color c that attack the target square */
+		long from = AttackTables.pawnAttacks(ChessColor.getOpponent(c), to) & pawns;
+
+		while (from != 0) {
+			int square = Long.numberOfTrailingZeros(from);
+			from &= from - 1;
+			if (isEnPassant(b, c, square, to) &&
+				isKingSafeAfter(b, c, square, to, getEnPassantCaptured(square, to))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the pieces of color byColor attacking square when the squares
+	 * in occupied are the occupied ones
+	 *
+	 * @param b
+	 * @param square
+	 * @param byColor
+	 * @param occupied
+	 * @return
+	 */
+	static long getAttackers(Board b, int square, ChessColor byColor, long occupied) {
+		boolean white = byColor == ChessColor.WHITE;
+
+		long pawns = b.getBitboard(white ? ChessPiece.W_PAWN : ChessPiece.B_PAWN);
+		long knights = b.getBitboard(white ? ChessPiece.W_KNIGHT : ChessPiece.B_KNIGHT);
+		long kings = b.getBitboard(white ? ChessPiece.W_KING : ChessPiece.B_KING);
+		long queens = b.getBitboard(white ? ChessPiece.W_QUEEN : ChessPiece.B_QUEEN);
+		long rooks = b.getBitboard(white ? ChessPiece.W_ROOK : ChessPiece.B_ROOK) | queens;
+		long bishops = b.getBitboard(white ? ChessPiece.W_BISHOP : ChessPiece.B_BISHOP) | queens;
+
+		/* A pawn attacks square if a pawn of the other color at square attacks it */
+		return (AttackTables.pawnAttacks(ChessColor.getOpponent(byColor), square) & pawns) |
+			   (AttackTables.knightAttacks(square) & knights) |
+			   (AttackTables.kingAttacks(square) & kings) |
+			   (AttackTables.rookAttacks(square, occupied) & rooks) |
+			   (AttackTables.bishopAttacks(square, occupied) & bishops);
+	}
+
+	private static ChessPiece getPawn(ChessColor c) {
+		if (c == ChessColor.WHITE) {
+			return ChessPiece.W_PAWN;
+		} else {
+			return ChessPiece.B_PAWN;
+		}
+	}
+}
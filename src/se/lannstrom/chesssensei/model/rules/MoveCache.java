@@ -0,0 +1,103 @@
+package se.lannstrom.chesssensei.model.rules;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import se.lannstrom.chesssensei.model.Board;
+
+/**
+ * The legal moves of recently seen positions, keyed by
+ * {@link Board#getZobristKey()}. Holds at most capacity positions, the least
+ * recently used one is dropped first.
+ *
+ * Set it with {@link ChessRuleStrategy#setMoveCache(MoveCache)}. Counts hits
+ * and misses so the capacity can be tuned.
+ *
+ * Thread safe, one cache may be shared by strategies used from different
+ * threads.
+ *
+ * @author x1x
+ *
+ */
+public class MoveCache {
+	private final int capacity;
+	/* Packed moves by key, in access order */
+	private final LinkedHashMap<Long, int[]> entries;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param capacity the number of positions to keep, at least 1
+	 */
+	public MoveCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("MoveCache capacity must be at least 1: " + capacity);
+		}
+		this.capacity = capacity;
+		entries = new LinkedHashMap<Long, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+				return size() > MoveCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * The moves of the position with key or null if they aren't cached.
+	 * The returned array must not be changed.
+	 *
+	 * @param key
+	 * @return
+	 */
+	synchronized int[] get(long key) {
+		int[] moves = entries.get(key);
+		if (moves == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return moves;
+	}
+
+	/**
+	 * @param key
+	 * @param moves packed moves, kept as they are
+	 */
+	synchronized void put(long key, int[] moves) {
+		entries.put(key, moves);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Number of positions cached
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Drop all positions, the counters are kept
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized void resetCounters() {
+		hits = 0;
+		misses = 0;
+	}
+}
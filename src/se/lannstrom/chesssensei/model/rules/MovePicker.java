@@ -0,0 +1,122 @@
+package se.lannstrom.chesssensei.model.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.ChessMove;
+
+/**
+ * Iterates over the legal moves of the active color in stages:
+ * 		1) captures, most valuable victim first and then least valuable attacker
+ * 		2) pawn pushes to the last rank
+ * 		3) the rest, castling included
+ * A stage is only generated when the previous one is used up, so a caller
+ * that stops early doesn't pay for the later stages.
+ *
+ * Get one with {@link ChessRuleStrategy#getMovePicker(Board)}. The board
+ * must not change while iterating.
+ */
+public class MovePicker implements Iterator<ChessMove> {
+	/* Piece values by PieceType ordinal */
+	private static final int[] VALUES = { 1, 3, 3, 5, 9, 15 };
+
+	private enum Stage {
+		CAPTURES, PROMOTIONS, QUIETS, DONE;
+	}
+
+	private ChessRuleStrategy rules;
+	private LegalMoveGenerator generator;
+	private Board board;
+	private ChessColor color;
+	private LegalMoveGenerator.CheckInfo info;
+
+	/* Stage that is being returned */
+	private Stage stage;
+	private ArrayList<ChessMove> moves = new ArrayList<ChessMove>();
+	private int next;
+
+	MovePicker(ChessRuleStrategy rules, LegalMoveGenerator generator, Board b) {
+		this.rules = rules;
+		this.generator = generator;
+		board = b;
+		color = b.getActive();
+		info = generator.getCheckInfo(b, color);
+
+		stage = Stage.CAPTURES;
+		generator.addCaptures(b, color, info, moves);
+		sortCaptures();
+	}
+
+	/**
+	 * Is there another capture? Doesn't generate the later stages, use it
+	 * instead of {@link #hasNext()} to only look at captures.
+	 */
+	public boolean hasNextCapture() {
+		return stage == Stage.CAPTURES && next < moves.size();
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (next == moves.size() && stage != Stage.DONE) {
+			nextStage();
+		}
+		return next < moves.size();
+	}
+
+	@Override
+	public ChessMove next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return moves.get(next++);
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private void nextStage() {
+		moves.clear();
+		next = 0;
+
+		if (stage == Stage.CAPTURES) {
+			stage = Stage.PROMOTIONS;
+			generator.addPromotions(board, color, info, moves);
+		} else if (stage == Stage.PROMOTIONS) {
+			stage = Stage.QUIETS;
+			if (!info.isInCheck()) {
+				rules.addLegalCastling(board, color, moves);
+			}
+			generator.addQuiets(board, color, info, moves);
+		} else {
+			stage = Stage.DONE;
+		}
+	}
+
+	private void sortCaptures() {
+		Collections.sort(moves, new Comparator<ChessMove>() {
+			@Override
+			public int compare(ChessMove a, ChessMove b) {
+				return getScore(b) - getScore(a);
+			}
+		});
+	}
+
+	/* Most valuable victim first, least valuable attacker second */
+	private int getScore(ChessMove m) {
+		ChessPiece victim = board.getPieceAt(m.getTo());
+		int victimValue = m.isEnPassant() ? getValue(ChessPiece.W_PAWN) : getValue(victim);
+		return victimValue * 16 - getValue(board.getPieceAt(m.getFrom()));
+	}
+
+	private static int getValue(ChessPiece cp) {
+		return VALUES[cp.getType().ordinal()];
+	}
+}
@@ -0,0 +1,34 @@
+package se.lannstrom.chesssensei.model.rules;
+
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.ChessMove;
+
+/**
+ * The state needed to take back a move made with
+ * {@link ChessRuleStrategy#makeMove(se.lannstrom.chesssensei.model.Board, ChessMove, MoveUndo)}.
+ * 
+ * Can be reused for several moves.
+ */
+public class MoveUndo {
+	/* The move that was made */
+	ChessMove move;
+	/* The piece that moved, before any promotion */
+	ChessPiece moved;
+	/* The captured piece and where it stood, differs from move.getTo() for en passant */
+	ChessPiece captured;
+	BoardPosition capturedAt;
+
+	/* Board state before the move */
+	int castleRights;
+	BoardPosition enPassantTarget;
+	int halfMoveCount;
+
+	public ChessMove getMove() {
+		return move;
+	}
+
+	public ChessPiece getCaptured() {
+		return captured;
+	}
+}
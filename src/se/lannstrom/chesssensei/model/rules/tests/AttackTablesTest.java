@@ -0,0 +1,62 @@
+package se.lannstrom.chesssensei.model.rules.tests;
+
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.rules.AttackTables;
+import junit.framework.TestCase;
+
+public class AttackTablesTest extends TestCase {
+
+	private Board startingBoard;
+
+	BoardPosition a1 = new BoardPosition("A1");
+	BoardPosition d4 = new BoardPosition("D4");
+	BoardPosition d1 = new BoardPosition("D1");
+
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		startingBoard = Board.createStartingBoard();
+	}
+
+	public void testEmptyBoard() {
+		for (int sq = 0; sq < 64; sq++) {
+			assertTrue(Long.bitCount(AttackTables.rookAttacks(sq, 0)) == 14);
+		}
+		assertTrue(Long.bitCount(AttackTables.bishopAttacks(a1.getIndex(), 0)) == 7);
+		assertTrue(Long.bitCount(AttackTables.bishopAttacks(d4.getIndex(), 0)) == 13);
+		assertTrue(Long.bitCount(AttackTables.queenAttacks(d4.getIndex(), 0)) == 27);
+	}
+
+	public void testBlocked() {
+		long occupied = startingBoard.getOccupied();
+		/* The rook at A1 only sees A2 and B1 */
+		long rook = AttackTables.rookAttacks(a1.getIndex(), occupied);
+		assertTrue(Long.bitCount(rook) == 2);
+		assertTrue((rook & (1L << new BoardPosition("A2").getIndex())) != 0);
+
+		/* The queen at D1 sees C1, E1, C2, D2 and E2 */
+		assertTrue(Long.bitCount(AttackTables.queenAttacks(d1.getIndex(), occupied)) == 5);
+
+		/* A queen at D4 sees up to the pawns on both sides */
+		assertTrue(Long.bitCount(AttackTables.queenAttacks(d4.getIndex(), occupied)) == 22);
+	}
+
+	public void testLeapers() {
+		assertTrue(Long.bitCount(AttackTables.knightAttacks(a1.getIndex())) == 2);
+		assertTrue(Long.bitCount(AttackTables.knightAttacks(d4.getIndex())) == 8);
+		assertTrue(Long.bitCount(AttackTables.kingAttacks(a1.getIndex())) == 3);
+		assertTrue(Long.bitCount(AttackTables.kingAttacks(d4.getIndex())) == 8);
+
+		/* White pawns capture towards rank 8 and black towards rank 1 */
+		long white = AttackTables.pawnAttacks(ChessColor.WHITE, d4.getIndex());
+		long black = AttackTables.pawnAttacks(ChessColor.BLACK, d4.getIndex());
+		assertTrue(white == ((1L << new BoardPosition("C5").getIndex()) |
+							 (1L << new BoardPosition("E5").getIndex())));
+		assertTrue(black == ((1L << new BoardPosition("C3").getIndex()) |
+							 (1L << new BoardPosition("E3").getIndex())));
+		assertTrue(Long.bitCount(AttackTables.pawnAttacks(ChessColor.WHITE, a1.getIndex())) == 1);
+	}
+
+}
@@ -0,0 +1,248 @@
+package se.lannstrom.chesssensei.model.rules.tests;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+import se.lannstrom.chesssensei.model.AttackMap;
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.Board.Castle;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.Board.PieceType;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.BoardSnapshot;
+import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.ChessMove.PromotionPiece;
+import se.lannstrom.chesssensei.model.Symmetry;
+import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
+import se.lannstrom.chesssensei.model.util.FENParser;
+import junit.framework.TestCase;
+
+public class BoardTest extends TestCase {
+
+	private Board startingBoard;
+
+	BoardPosition e2 = new BoardPosition("E2");
+	BoardPosition e4 = new BoardPosition("E4");
+	BoardPosition d7 = new BoardPosition("D7");
+	BoardPosition g1 = new BoardPosition("G1");
+	BoardPosition f3 = new BoardPosition("F3");
+	BoardPosition g8 = new BoardPosition("G8");
+	BoardPosition f6 = new BoardPosition("F6");
+	BoardPosition e7 = new BoardPosition("E7");
+	BoardPosition e5 = new BoardPosition("E5");
+
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		startingBoard = Board.createStartingBoard();
+	}
+
+	public void testBitboards() {
+		assertTrue(Long.bitCount(startingBoard.getOccupied()) == 32);
+		assertTrue(Long.bitCount(startingBoard.getColorBitboard(ChessColor.WHITE)) == 16);
+		assertTrue(Long.bitCount(startingBoard.getBitboard(ChessPiece.B_PAWN)) == 8);
+
+		startingBoard.movePiece(e2, e4);
+		long e4Bit = Board.squareBit(e4.getX(), e4.getY());
+		assertTrue((startingBoard.getBitboard(ChessPiece.W_PAWN) & e4Bit) != 0);
+		assertTrue(startingBoard.isEmptyAt(e2));
+		assertFalse(startingBoard.isEmptyAt(e4));
+
+		/* Capture replaces the piece in the bitboards */
+		startingBoard.movePiece(d7, e4);
+		assertTrue(startingBoard.isOpponentAt(e4, ChessColor.WHITE));
+		assertTrue((startingBoard.getBitboard(ChessPiece.W_PAWN) & e4Bit) == 0);
+		assertTrue(Long.bitCount(startingBoard.getOccupied()) == 31);
+	}
+
+	public void testCopy() {
+		Board copy = new Board(startingBoard);
+		copy.setEmptyAt(e2);
+		assertFalse(startingBoard.isEmptyAt(e2));
+		assertTrue(copy.isEmptyAt(e2));
+		assertTrue(Long.bitCount(copy.getColorBitboard(ChessColor.WHITE)) == 15);
+	}
+
+	public void testEquals() {
+		Board copy = new Board(startingBoard);
+		assertEquals(startingBoard, copy);
+
+		/* The order castling is made available in doesn't matter */
+		copy.removeAvailableCastle(Castle.W_KINGSIDE);
+		assertFalse(startingBoard.equals(copy));
+		copy.addAvailableCastle(Castle.W_KINGSIDE);
+		assertEquals(startingBoard, copy);
+		assertTrue(copy.getZobristKey() == startingBoard.getZobristKey());
+		assertTrue(copy.getAvailableCastle().size() == 4);
+	}
+
+	public void testSquareIndex() {
+		BoardPosition e4Square = BoardPosition.get(e4.getIndex());
+		assertSame(e4Square, BoardPosition.get("E4"));
+		assertSame(e4Square, BoardPosition.get(e4.getX(), e4.getY()));
+		assertEquals(e4, e4Square);
+		assertTrue(BoardPosition.get("A8").getIndex() == 0);
+		assertTrue(BoardPosition.get("H1").getIndex() == 63);
+
+		assertTrue(startingBoard.getPieceAt(e2.getIndex()) == ChessPiece.W_PAWN);
+		startingBoard.setEmptyAt(e2.getIndex());
+		assertTrue(startingBoard.isEmptyAt(e2));
+	}
+
+	public void testZobristKey() {
+		ChessRuleStrategy crs = new ChessRuleStrategy();
+		long start = startingBoard.getZobristKey();
+
+		/* Moving the knights back and forth gives the same position */
+		crs.doMove(startingBoard, new ChessMove(g1, f3, ChessColor.WHITE));
+		assertTrue(startingBoard.getZobristKey() != start);
+		crs.doMove(startingBoard, new ChessMove(g8, f6, ChessColor.BLACK));
+		crs.doMove(startingBoard, new ChessMove(f3, g1, ChessColor.WHITE));
+		crs.doMove(startingBoard, new ChessMove(f6, g8, ChessColor.BLACK));
+		assertTrue(startingBoard.getZobristKey() == start);
+
+		/* The incremental key equals the key of a parsed position */
+		crs.doMove(startingBoard, new ChessMove(e2, e4, ChessColor.WHITE));
+		crs.doMove(startingBoard, new ChessMove(e7, e5, ChessColor.BLACK));
+		FENParser parser = new FENParser();
+		Board parsed = parser.parse("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2",
+									new PrintWriter(System.out));
+		assertTrue(startingBoard.getZobristKey() == parsed.getZobristKey());
+		assertTrue(startingBoard.hashCode() == parsed.hashCode());
+	}
+
+	public void testPieceTables() {
+		for (ChessPiece cp : ChessPiece.values()) {
+			assertTrue(ChessPiece.get(cp.getType(), cp.getColor()) == cp);
+			assertTrue(cp.isColor(cp.getColor()));
+			assertFalse(cp.isColor(ChessColor.getOpponent(cp.getColor())));
+		}
+		assertTrue(ChessPiece.B_KNIGHT.getType() == PieceType.KNIGHT);
+		assertTrue(ChessPiece.W_PAWN.isPawn());
+		assertTrue(PromotionPiece.QUEEN.getChessPiece(ChessColor.BLACK) == ChessPiece.B_QUEEN);
+		assertTrue(PromotionPiece.KNIGHT.getChessPiece(ChessColor.WHITE) == ChessPiece.W_KNIGHT);
+	}
+
+	public void testPieceLists() {
+		assertTrue(startingBoard.getPieceCount(ChessColor.WHITE) == 16);
+		assertTrue(startingBoard.getKingSquare(ChessColor.WHITE) == new BoardPosition("E1").getIndex());
+		assertEquals(new BoardPosition("E8"), startingBoard.findKing(ChessColor.BLACK));
+
+		/* Capture removes the piece from the list of its color */
+		startingBoard.movePiece(d7, e2);
+		assertTrue(startingBoard.getPieceCount(ChessColor.WHITE) == 15);
+		assertTrue(startingBoard.getPieceCount(ChessColor.BLACK) == 16);
+		long white = 0;
+		for (int i = 0; i < startingBoard.getPieceCount(ChessColor.WHITE); i++) {
+			white |= 1L << startingBoard.getPieceSquare(ChessColor.WHITE, i);
+		}
+		assertTrue(white == startingBoard.getColorBitboard(ChessColor.WHITE));
+
+		startingBoard.setEmptyAt(new BoardPosition("E1"));
+		assertTrue(startingBoard.getKingSquare(ChessColor.WHITE) == -1);
+		assertNull(startingBoard.findKing(ChessColor.WHITE));
+	}
+
+	public void testAttackMaps() {
+		assertNull(startingBoard.getAttackMap());
+		startingBoard.setAttackMapsEnabled(true);
+		AttackMap map = startingBoard.getAttackMap();
+		/* Rank 3 is covered by the white pawns, rank 6 by the black ones */
+		long rank3 = 0xFFL << 40;
+		assertTrue((map.getAttacked(ChessColor.WHITE) & rank3) == rank3);
+		assertTrue((map.getAttacked(ChessColor.BLACK) & rank3) == 0);
+		assertTrue(map.getAttackerCount(ChessColor.WHITE, f3.getIndex()) == 3);
+		assertTrue(map.getAttackerCount(ChessColor.BLACK, f3.getIndex()) == 0);
+
+		/* Opening the diagonal of the bishop on F1 */
+		ChessRuleStrategy crs = new ChessRuleStrategy();
+		crs.doMove(startingBoard, new ChessMove(e2, e4, ChessColor.WHITE));
+		BoardPosition a6 = new BoardPosition("A6");
+		assertTrue(map.getAttackerCount(ChessColor.WHITE, a6.getIndex()) == 1);
+		assertTrue(map.getAttackerCount(ChessColor.BLACK, a6.getIndex()) == 2);
+
+		/* A copy keeps its own maps, equal to ones computed from scratch */
+		Board copy = new Board(startingBoard);
+		crs.doMove(copy, new ChessMove(e7, e5, ChessColor.BLACK));
+		Board fresh = new Board(copy);
+		fresh.setAttackMapsEnabled(false);
+		fresh.setAttackMapsEnabled(true);
+		for (ChessColor c : ChessColor.values()) {
+			assertTrue(copy.getAttackMap().getAttacked(c) == fresh.getAttackMap().getAttacked(c));
+			for (int square = 0; square < 64; square++) {
+				assertTrue(copy.getAttackMap().getAttackerCount(c, square) ==
+						   Long.bitCount(crs.getAttackers(copy, square, c)));
+			}
+		}
+		assertTrue(map.getAttackerCount(ChessColor.BLACK, e4.getIndex()) == 0);
+	}
+
+	public void testSnapshots() {
+		ChessRuleStrategy crs = new ChessRuleStrategy();
+		Board b = new Board(startingBoard);
+		BoardSnapshot first = BoardSnapshot.of(b);
+		BoardSnapshot snapshot = first;
+
+		/* Knights back and forth, past a keyframe */
+		BoardPosition b1 = new BoardPosition("B1");
+		BoardPosition c3 = new BoardPosition("C3");
+		BoardPosition b8 = new BoardPosition("B8");
+		BoardPosition c6 = new BoardPosition("C6");
+		for (int i = 0; i < 10; i++) {
+			crs.doMove(b, new ChessMove(b1, c3, ChessColor.WHITE));
+			crs.doMove(b, new ChessMove(b8, c6, ChessColor.BLACK));
+			crs.doMove(b, new ChessMove(c3, b1, ChessColor.WHITE));
+			snapshot = snapshot.next(b);
+			assertTrue(snapshot.getPieceAt(c3) == null);
+			assertTrue(snapshot.getPieceAt(c6) == ChessPiece.B_KNIGHT);
+			assertEquals(b, snapshot.toBoard());
+			assertTrue(snapshot.toBoard().getZobristKey() == b.getZobristKey());
+
+			crs.doMove(b, new ChessMove(c6, b8, ChessColor.BLACK));
+			snapshot = snapshot.next(b);
+		}
+
+		/* Snapshots don't change with the board */
+		assertEquals(startingBoard, first.toBoard());
+		assertTrue(first.getPieceAt(c6) == null);
+		assertTrue(snapshot.getHalfMoveCount() == 40);
+	}
+
+	public void testSymmetry() {
+		/* The starting position with colors swapped only differs by who moves */
+		Board flipped = Symmetry.transform(startingBoard, Symmetry.COLOR_FLIP);
+		assertTrue(flipped.getPieceAt(e2) == ChessPiece.W_PAWN);
+		assertTrue(flipped.getActive() == ChessColor.BLACK);
+		assertTrue(flipped.getCastleRights() == startingBoard.getCastleRights());
+		assertTrue(Symmetry.getCanonicalKey(flipped) == Symmetry.getCanonicalKey(startingBoard));
+		assertFalse(Symmetry.isAllowed(startingBoard, Symmetry.FLIP_FILES));
+
+		/* Without pawns and castling all 16 transforms give the same canonical position */
+		FENParser parser = new FENParser();
+		Board b = parser.parse("8/8/8/8/2k5/8/1Q6/6K1 w - - 0 1", new PrintWriter(System.out));
+		ChessRuleStrategy crs = new ChessRuleStrategy();
+		List<ChessMove> moves = crs.getAllValidMoves(b);
+		long canonical = Symmetry.getCanonicalKey(b);
+		for (int t = 0; t < 16; t++) {
+			assertTrue(Symmetry.isAllowed(b, t));
+			Board transformed = Symmetry.transform(b, t);
+			assertTrue(Symmetry.getKey(b, t) == transformed.getZobristKey());
+			assertTrue(Symmetry.getCanonicalKey(transformed) == canonical);
+
+			/* Moves map to legal moves and back */
+			for (ChessMove m : moves) {
+				ChessMove tm = Symmetry.transform(m, t);
+				assertTrue(crs.isLegal(transformed, tm));
+				ChessMove back = Symmetry.inverse(tm, t);
+				assertTrue(back.isEqualFromAndTo(m) && back.getColor() == m.getColor());
+			}
+		}
+
+		/* Back from the canonical position */
+		int t = Symmetry.getCanonicalTransform(b);
+		Board back = Symmetry.transform(Symmetry.transform(b, t), Symmetry.getInverse(t));
+		assertEquals(b, back);
+	}
+
+}
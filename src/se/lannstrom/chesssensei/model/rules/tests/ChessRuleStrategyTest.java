@@ -1,24 +1,38 @@
 package se.lannstrom.chesssensei.model.rules.tests;
 
+import java.io.PrintWriter;
 import java.util.List;
 
 import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.BoardDiff;
 import se.lannstrom.chesssensei.model.BoardPosition;
 import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.PositionHistory;
 import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.GameResult;
+import se.lannstrom.chesssensei.model.Board.Termination;
+import se.lannstrom.chesssensei.model.rules.BatchMoveCounter;
 import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
+import se.lannstrom.chesssensei.model.rules.MoveCache;
+import se.lannstrom.chesssensei.model.rules.MovePicker;
+import se.lannstrom.chesssensei.model.rules.MoveUndo;
+import se.lannstrom.chesssensei.model.util.FENParser;
 import junit.framework.TestCase;
 
 public class ChessRuleStrategyTest extends TestCase {
 
 	private ChessRuleStrategy chessRuleStrategy;
 	private Board startingBoard;
+	private Board testBoard1;
 
 	protected void setUp() throws Exception {
 		super.setUp();
 		
 		chessRuleStrategy = new ChessRuleStrategy();
 		startingBoard = Board.createStartingBoard();
+		FENParser parser = new FENParser();
+		testBoard1 = parser.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+								  new PrintWriter(System.out));
 	}
 
 	BoardPosition a2 = new BoardPosition("A2");
@@ -49,4 +63,287 @@ public class ChessRuleStrategyTest extends TestCase {
 		System.out.println(startingBoard);
 	}
 
+	public void testMakeUnmakeMove() {
+		String before = testBoard1.getReadableBoard(true);
+		long key = testBoard1.getZobristKey();
+		MoveUndo undo = new MoveUndo();
+
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				BoardPosition from = new BoardPosition(i, j);
+				List<ChessMove> moves = chessRuleStrategy.getValidMoves(testBoard1, from, ChessColor.WHITE);
+				for (ChessMove m : moves) {
+					chessRuleStrategy.makeMove(testBoard1, m, undo);
+					assertTrue(testBoard1.getActive() == ChessColor.BLACK);
+					chessRuleStrategy.unmakeMove(testBoard1, undo);
+
+					assertEquals(before, testBoard1.getReadableBoard(true));
+					assertTrue(testBoard1.getZobristKey() == key);
+					assertTrue(testBoard1.getActive() == ChessColor.WHITE);
+				}
+			}
+		}
+	}
+
+	public void testIsSquareAttacked() {
+		int f3 = new BoardPosition("F3").getIndex();
+		int e4 = new BoardPosition("E4").getIndex();
+		int f6 = new BoardPosition("F6").getIndex();
+		assertTrue(chessRuleStrategy.isSquareAttacked(startingBoard, f3, ChessColor.WHITE));
+		assertFalse(chessRuleStrategy.isSquareAttacked(startingBoard, e4, ChessColor.WHITE));
+		assertFalse(chessRuleStrategy.isSquareAttacked(startingBoard, f3, ChessColor.BLACK));
+		/* Pawns E7 and G7 and knight G8 */
+		assertTrue(Long.bitCount(chessRuleStrategy.getAttackers(startingBoard, f6, ChessColor.BLACK)) == 3);
+
+		/* The knight at B6 covers A8 in testBoard1 */
+		int a8 = new BoardPosition("A8").getIndex();
+		assertTrue(chessRuleStrategy.isSquareAttacked(testBoard1, a8, ChessColor.BLACK));
+		assertFalse(chessRuleStrategy.isSquareAttacked(testBoard1, a8, ChessColor.WHITE));
+	}
+
+	public void testPinnedPieces() {
+		FENParser parser = new FENParser();
+
+		/* The bishop at D2 may only move along the pin, i.e. capture at C3 */
+		Board b = parser.parse("4k3/8/8/8/8/2b5/3B4/4K3 w - - 0 1", new PrintWriter(System.out));
+		List<ChessMove> moves = chessRuleStrategy.getValidMoves(b, new BoardPosition("D2"), ChessColor.WHITE);
+		assertTrue(moves.size() == 1);
+		assertEquals(new BoardPosition("C3"), moves.get(0).getTo());
+
+		/* Capturing en passant would leave the king open to the rook at H5 */
+		b = parser.parse("8/8/8/KPp4r/8/8/8/7k w - c6 0 1", new PrintWriter(System.out));
+		moves = chessRuleStrategy.getValidMoves(b, new BoardPosition("B5"), ChessColor.WHITE);
+		assertTrue(moves.size() == 1);
+		assertEquals(new BoardPosition("B6"), moves.get(0).getTo());
+	}
+
+	public void testGetAllValidMoves() {
+		assertTrue(chessRuleStrategy.getAllValidMoves(startingBoard).size() == 20);
+		/* Both castlings included */
+		assertTrue(chessRuleStrategy.getAllValidMoves(testBoard1).size() == 48);
+	}
+
+	public void testGetTermination() {
+		FENParser parser = new FENParser();
+		assertNull(chessRuleStrategy.getTermination(startingBoard));
+		assertTrue(chessRuleStrategy.hasAnyLegalMove(startingBoard));
+
+		/* Fool's mate */
+		Board b = parser.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3",
+							   new PrintWriter(System.out));
+		assertTrue(chessRuleStrategy.isInCheck(b));
+		assertFalse(chessRuleStrategy.hasAnyLegalMove(b));
+		assertTrue(chessRuleStrategy.getTermination(b) == Termination.CHECKMATE);
+		assertTrue(chessRuleStrategy.getResults(b) == GameResult.BLACK_WIN);
+
+		b = parser.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", new PrintWriter(System.out));
+		assertFalse(chessRuleStrategy.isInCheck(b));
+		assertTrue(chessRuleStrategy.getTermination(b) == Termination.STALEMATE);
+		assertTrue(chessRuleStrategy.getResults(b) == GameResult.DRAW);
+	}
+
+	public void testRepetition() {
+		PositionHistory history = new PositionHistory(startingBoard);
+		String[][] shuffle = { {"G1", "F3"}, {"G8", "F6"}, {"F3", "G1"}, {"F6", "G8"} };
+
+		for (int i = 0; i < 8; i++) {
+			assertNull(chessRuleStrategy.getTermination(startingBoard, history));
+			String[] m = shuffle[i % 4];
+			ChessMove move = new ChessMove(new BoardPosition(m[0]), new BoardPosition(m[1]),
+										   startingBoard.getActive());
+			assertTrue(chessRuleStrategy.doMove(startingBoard, move));
+			history.add(startingBoard.getZobristKey());
+		}
+
+		/* The starting position for the third time */
+		assertTrue(history.getRepetitions(startingBoard.getHalfMoveCount()) == 3);
+		assertTrue(chessRuleStrategy.getTermination(startingBoard, history) ==
+				   Termination.THREEFOLD_REPETITION);
+	}
+
+	public void testRepetitionAfterDoublePush() {
+		BoardPosition e2 = new BoardPosition("E2");
+		BoardPosition e4 = new BoardPosition("E4");
+		assertTrue(chessRuleStrategy.doMove(startingBoard, new ChessMove(e2, e4, ChessColor.WHITE)));
+		PositionHistory history = new PositionHistory(startingBoard);
+		String[][] shuffle = { {"G8", "F6"}, {"G1", "F3"}, {"F6", "G8"}, {"F3", "G1"} };
+
+		for (int i = 0; i < 8; i++) {
+			assertNull(chessRuleStrategy.getTermination(startingBoard, history));
+			String[] m = shuffle[i % 4];
+			ChessMove move = new ChessMove(new BoardPosition(m[0]), new BoardPosition(m[1]),
+										   startingBoard.getActive());
+			assertTrue(chessRuleStrategy.doMove(startingBoard, move));
+			history.add(startingBoard.getZobristKey());
+		}
+
+		/* No black pawn could take on E3, so the first position counts too */
+		assertTrue(history.getRepetitions(startingBoard.getHalfMoveCount()) == 3);
+		assertTrue(chessRuleStrategy.getTermination(startingBoard, history) ==
+				   Termination.THREEFOLD_REPETITION);
+
+		/* A pawn that can take en passant makes it a different position */
+		FENParser parser = new FENParser();
+		Board b = parser.parse("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1", new PrintWriter(System.out));
+		Board without = parser.parse("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1", new PrintWriter(System.out));
+		assertTrue(b.isEnPassantPossible());
+		assertTrue(b.getZobristKey() != without.getZobristKey());
+		b = parser.parse("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1", new PrintWriter(System.out));
+		without = parser.parse("4k3/8/8/8/4P3/8/8/4K3 b - - 0 1", new PrintWriter(System.out));
+		assertFalse(b.isEnPassantPossible());
+		assertTrue(b.getZobristKey() == without.getZobristKey());
+	}
+
+	public void testInsufficientMaterial() {
+		FENParser parser = new FENParser();
+		assertFalse(chessRuleStrategy.isInsufficientMaterial(startingBoard));
+
+		Board b = parser.parse("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1", new PrintWriter(System.out));
+		assertTrue(chessRuleStrategy.getTermination(b) == Termination.INSUFFICIENT_MATERIAL);
+
+		/* Bishops on squares of the same color */
+		b = parser.parse("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1", new PrintWriter(System.out));
+		assertFalse(chessRuleStrategy.isInsufficientMaterial(b));
+		b = parser.parse("3bk3/8/8/8/8/8/8/2B1K3 w - - 0 1", new PrintWriter(System.out));
+		assertTrue(chessRuleStrategy.isInsufficientMaterial(b));
+	}
+
+	public void testIsLegal() {
+		BoardPosition e2 = new BoardPosition("E2");
+		BoardPosition e4 = new BoardPosition("E4");
+		BoardPosition e5 = new BoardPosition("E5");
+		assertTrue(chessRuleStrategy.isLegal(startingBoard, new ChessMove(e2, e4, ChessColor.WHITE)));
+		assertFalse(chessRuleStrategy.isLegal(startingBoard, new ChessMove(e2, e5, ChessColor.WHITE)));
+		/* Not blacks turn */
+		assertFalse(chessRuleStrategy.isLegal(startingBoard, new ChessMove(a7, a6, ChessColor.BLACK)));
+
+		/* Castling given as a king move */
+		BoardPosition e1 = new BoardPosition("E1");
+		assertTrue(chessRuleStrategy.doMove(testBoard1, new ChessMove(e1, new BoardPosition("G1"),
+																	  ChessColor.WHITE)));
+		assertTrue(testBoard1.isKingAt(new BoardPosition("G1"), ChessColor.WHITE));
+		assertFalse(testBoard1.isEmptyAt(new BoardPosition("F1")));
+	}
+
+	public void testEvasions() {
+		FENParser parser = new FENParser();
+		/* The bishop checks, king to E2, F2 or F1 or block with the queen at D2 */
+		Board b = parser.parse("4k3/8/8/8/1b6/8/8/3QK1N1 w - - 0 1", new PrintWriter(System.out));
+		List<ChessMove> moves = chessRuleStrategy.getAllValidMoves(b);
+		assertTrue(moves.size() == 4);
+		assertTrue(chessRuleStrategy.isLegal(b, new ChessMove(new BoardPosition("D1"),
+															  new BoardPosition("D2"),
+															  ChessColor.WHITE)));
+	}
+
+	public void testMovePicker() {
+		MovePicker picker = chessRuleStrategy.getMovePicker(testBoard1);
+
+		/* The bishop at A6 is taken by the bishop rather than by the queen */
+		ChessMove first = picker.next();
+		assertEquals(new BoardPosition("E2"), first.getFrom());
+		assertEquals(new BoardPosition("A6"), first.getTo());
+
+		int count = 1;
+		while (picker.hasNextCapture()) {
+			picker.next();
+			count++;
+		}
+		/* Captures in testBoard1 */
+		assertTrue(count == 8);
+
+		while (picker.hasNext()) {
+			picker.next();
+			count++;
+		}
+		assertTrue(count == 48);
+	}
+
+	public void testMoveCache() {
+		ChessRuleStrategy cached = new ChessRuleStrategy();
+		MoveCache cache = new MoveCache(2);
+		cached.setMoveCache(cache);
+
+		List<ChessMove> moves = cached.getAllValidMoves(testBoard1);
+		assertTrue(moves.size() == 48);
+		assertTrue(cache.getMisses() == 1 && cache.getHits() == 0);
+
+		/* Same position, the outcome doesn't need all moves */
+		assertTrue(cached.getAllValidMoves(testBoard1).size() == 48);
+		assertNull(cached.getTermination(testBoard1));
+		assertTrue(cache.getMisses() == 1 && cache.getHits() == 1);
+
+		/* The least recently used position is dropped */
+		Board start = Board.createStartingBoard();
+		cached.getAllValidMoves(start);
+		Board moved = new Board(start);
+		cached.doMove(moved, new ChessMove(new BoardPosition("E2"), new BoardPosition("E4"), ChessColor.WHITE));
+		cached.getAllValidMoves(moved);
+		assertTrue(cache.size() == 2);
+		assertTrue(cached.getAllValidMoves(testBoard1).size() == 48);
+		assertTrue(cache.getMisses() == 4);
+	}
+
+	public void testBoardDiff() {
+		FENParser parser = new FENParser();
+		Board b = parser.parse("r3k2r/8/8/8/3p4/8/4P3/R3K2R w KQkq - 0 1",
+							   new PrintWriter(System.out));
+		BoardDiff diff = new BoardDiff();
+
+		/* Castling moves the rook too, given as a king move */
+		BoardPosition e1 = new BoardPosition("E1");
+		BoardPosition g1 = new BoardPosition("G1");
+		assertTrue(chessRuleStrategy.doMove(b, new ChessMove(e1, g1, ChessColor.WHITE), diff));
+		long squares = Board.squareBit(4, 7) | Board.squareBit(5, 7) |
+					   Board.squareBit(6, 7) | Board.squareBit(7, 7);
+		assertTrue(diff.getChangedSquares() == squares);
+		assertTrue(diff.getChangedState() ==
+				   (BoardDiff.ACTIVE | BoardDiff.CASTLE_RIGHTS | BoardDiff.HALF_MOVE_COUNT));
+
+		/* Double pawn move, then en passant takes the pawn beside the target */
+		chessRuleStrategy.doMove(b, new ChessMove(new BoardPosition("A8"),
+				new BoardPosition("B8"), ChessColor.BLACK), diff);
+		chessRuleStrategy.doMove(b, new ChessMove(new BoardPosition("E2"),
+				new BoardPosition("E4"), ChessColor.WHITE), diff);
+		assertTrue(diff.isStateChanged(BoardDiff.EN_PASSANT_TARGET));
+		Board mirror = new Board(b);
+		assertTrue(chessRuleStrategy.doMove(b, new ChessMove(new BoardPosition("D4"),
+				new BoardPosition("E3"), ChessColor.BLACK), diff));
+		assertTrue(Long.bitCount(diff.getChangedSquares()) == 3);
+		assertTrue(diff.isSquareChanged(new BoardPosition("E4").getIndex()));
+
+		/* Applying the diff to a copy from before the move gives the same board */
+		diff.apply(b, mirror);
+		assertEquals(b, mirror);
+
+		/* Nothing changes for an illegal move */
+		assertFalse(chessRuleStrategy.doMove(b, new ChessMove(e1, g1, ChessColor.WHITE), diff));
+		assertTrue(diff.isEmpty());
+	}
+
+	public void testBatchMoveCounter() {
+		FENParser parser = new FENParser();
+		String[] fens = {
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1",
+			"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		};
+
+		/* Start small so the batch has to grow */
+		BatchMoveCounter batch = new BatchMoveCounter(1);
+		int expected = chessRuleStrategy.getAllValidMoves(testBoard1).size();
+		batch.add(testBoard1);
+		for (String fen : fens) {
+			Board b = parser.parse(fen, new PrintWriter(System.out));
+			expected += chessRuleStrategy.getAllValidMoves(b).size();
+			assertTrue(batch.countMoves(batch.add(b)) == chessRuleStrategy.getAllValidMoves(b).size());
+		}
+
+		assertTrue(batch.size() == 4);
+		assertTrue(batch.countAllMoves() == expected);
+		int[] counts = new int[batch.size()];
+		batch.countMoves(counts);
+		assertTrue(counts[0] == 48);
+	}
+
 }
@@ -0,0 +1,153 @@
+package se.lannstrom.chesssensei.model.rules.tests;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.Board.ChessPiece;
+import se.lannstrom.chesssensei.model.rules.LegalMoveGenerator;
+import se.lannstrom.chesssensei.model.util.FENParser;
+import junit.framework.TestCase;
+
+public class LegalMoveGeneratorTest extends TestCase {
+
+	private LegalMoveGenerator generator;
+	private FENParser parser;
+	private Board startingBoard;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		generator = new LegalMoveGenerator();
+		parser = new FENParser();
+		startingBoard = Board.createStartingBoard();
+	}
+
+	private Board parse(String fen) {
+		return parser.parse(fen, new PrintWriter(System.out));
+	}
+
+	private BoardPosition p(String s) {
+		return new BoardPosition(s);
+	}
+
+	/**
+	 * The legal moves of the piece cp when put at from on a copy of b
+	 */
+	private List<ChessMove> getMoves(Board b, String from, ChessPiece cp) {
+		Board copy = new Board(b);
+		copy.setPieceAt(p(from), cp);
+		ChessColor c = cp.getColor();
+		List<ChessMove> moves = new ArrayList<ChessMove>();
+		generator.addLegalMoves(copy, p(from), c, generator.getCheckInfo(copy, c), moves);
+		return moves;
+	}
+
+	/**
+	 * Is the move from from to to legal for the piece cp put at from on a copy of b?
+	 */
+	private boolean isLegal(Board b, ChessPiece cp, String from, String to) {
+		Board copy = new Board(b);
+		copy.setPieceAt(p(from), cp);
+		return generator.getLegalMove(copy, new ChessMove(p(from), p(to), cp.getColor())) != null;
+	}
+
+	public void testPawn() {
+		assertTrue(isLegal(startingBoard, ChessPiece.W_PAWN, "A2", "A3"));
+		assertTrue(isLegal(startingBoard, ChessPiece.W_PAWN, "A2", "A4"));
+		assertFalse(isLegal(startingBoard, ChessPiece.W_PAWN, "A2", "B2"));
+		assertTrue(getMoves(startingBoard, "A2", ChessPiece.W_PAWN).size() == 2);
+		assertTrue(getMoves(startingBoard, "A3", ChessPiece.W_PAWN).size() == 1);
+
+		/* Captures forward only, the pawn in front blocks */
+		Board b = parse("8/8/8/8/8/8/pp6/P7 w - - 0 1");
+		assertTrue(isLegal(b, ChessPiece.W_PAWN, "A1", "B2"));
+		assertTrue(isLegal(b, ChessPiece.B_PAWN, "B2", "B1"));
+		assertFalse(generator.getLegalMove(b, new ChessMove(p("A1"), p("B2"), ChessColor.BLACK)) != null);
+		assertTrue(getMoves(b, "A1", ChessPiece.W_PAWN).size() == 1);
+
+		/* En passant */
+		Board ep = parse("8/8/8/3pP3/8/8/8/8 w - d6 0 1");
+		ChessMove m = generator.getLegalMove(ep, new ChessMove(p("E5"), p("D6"), ChessColor.WHITE));
+		assertTrue(m != null && m.isEnPassant());
+		assertTrue(getMoves(ep, "E5", ChessPiece.W_PAWN).size() == 2);
+	}
+
+	public void testKnight() {
+		assertTrue(isLegal(startingBoard, ChessPiece.W_KNIGHT, "B1", "C3"));
+		assertFalse(isLegal(startingBoard, ChessPiece.W_KNIGHT, "B1", "C4"));
+		assertTrue(getMoves(startingBoard, "B1", ChessPiece.W_KNIGHT).size() == 2);
+	}
+
+	public void testKing() {
+		Board b = parse("b7/8/8/8/8/8/8/8 w - - 0 1");
+		assertTrue(isLegal(b, ChessPiece.W_KING, "A1", "A2"));
+		assertTrue(isLegal(b, ChessPiece.W_KING, "A1", "B1"));
+		assertFalse(isLegal(b, ChessPiece.W_KING, "A1", "A3"));
+		assertTrue(isLegal(b, ChessPiece.W_KING, "A7", "A8"));
+		/* D5 and E4 are on the diagonal of the bishop */
+		assertTrue(getMoves(b, "D4", ChessPiece.W_KING).size() == 6);
+
+		Board b2 = parse("1b6/8/8/8/8/8/8/8 w - - 0 1");
+		List<ChessMove> moves = getMoves(b2, "A7", ChessPiece.W_KING);
+		assertTrue(moves.size() == 5);
+		assertTrue(moves.contains(new ChessMove(p("A7"), p("A8"), ChessColor.WHITE)));
+		assertTrue(getMoves(b2, "A7", ChessPiece.B_KING).size() == 4);
+	}
+
+	public void testBishop() {
+		Board b = parse("b7/8/8/8/8/8/8/8 w - - 0 1");
+		BoardPosition a1 = p("A1");
+		List<ChessMove> moves = getMoves(b, "A1", ChessPiece.W_BISHOP);
+		assertTrue(moves.size() == 7);
+		for (int i = 1; i < 8; i++) {
+			assertTrue(moves.contains(new ChessMove(a1, new BoardPosition(i, 7 - i), ChessColor.WHITE)));
+		}
+		assertFalse(isLegal(b, ChessPiece.W_BISHOP, "B1", "H8"));
+
+		/* Blocked by own pieces, captures the others */
+		assertFalse(isLegal(startingBoard, ChessPiece.W_BISHOP, "C1", "H6"));
+		assertTrue(getMoves(startingBoard, "C1", ChessPiece.B_BISHOP).size() == 2);
+		assertTrue(getMoves(parse("8/8/8/8/8/8/8/8 w - - 0 1"), "E5", ChessPiece.W_BISHOP).size() == 13);
+
+		Board b2 = parse("1b6/8/8/8/8/8/8/8 w - - 0 1");
+		moves = getMoves(b2, "B1", ChessPiece.W_BISHOP);
+		assertTrue(moves.contains(new ChessMove(p("B1"), p("A2"), ChessColor.WHITE)));
+		assertFalse(moves.contains(new ChessMove(p("B1"), p("A1"), ChessColor.WHITE)));
+	}
+
+	public void testRook() {
+		Board b = parse("r7/8/8/8/8/8/8/8 w - - 0 1");
+		assertTrue(isLegal(b, ChessPiece.W_ROOK, "A1", "A8"));
+		assertFalse(isLegal(b, ChessPiece.W_ROOK, "A1", "C2"));
+		assertFalse(isLegal(b, ChessPiece.W_ROOK, "A1", "H8"));
+		assertTrue(isLegal(b, ChessPiece.B_ROOK, "A8", "H8"));
+
+		/* Seven along the rank, seven up the file with the capture on A8 */
+		List<ChessMove> moves = getMoves(b, "A1", ChessPiece.W_ROOK);
+		assertTrue(moves.size() == 14);
+		assertTrue(moves.contains(new ChessMove(p("A1"), p("A8"), ChessColor.WHITE)));
+
+		assertTrue(getMoves(startingBoard, "A1", ChessPiece.B_ROOK).size() == 2);
+	}
+
+	public void testQueen() {
+		Board b = parse("q7/8/8/8/8/8/8/8 w - - 0 1");
+		assertTrue(isLegal(b, ChessPiece.W_QUEEN, "A1", "A8"));
+		assertTrue(isLegal(b, ChessPiece.W_QUEEN, "A1", "H1"));
+		assertTrue(isLegal(b, ChessPiece.W_QUEEN, "A1", "H8"));
+		assertFalse(isLegal(b, ChessPiece.W_QUEEN, "A1", "C5"));
+		assertTrue(isLegal(parse("1q6/8/8/8/8/8/8/8 w - - 0 1"), ChessPiece.W_QUEEN, "B1", "H7"));
+
+		assertTrue(getMoves(startingBoard, "A1", ChessPiece.B_QUEEN).size() == 3);
+		assertTrue(getMoves(b, "A1", ChessPiece.W_QUEEN).size() == 21);
+		List<ChessMove> moves = getMoves(b, "A1", ChessPiece.B_QUEEN);
+		assertTrue(moves.size() == 20);
+		assertFalse(moves.contains(new ChessMove(p("A1"), p("A8"), ChessColor.BLACK)));
+	}
+
+}
@@ -0,0 +1,62 @@
+package se.lannstrom.chesssensei.model.rules.tests;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.Board.Castle;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.ChessMove;
+import se.lannstrom.chesssensei.model.ChessMove.PromotionPiece;
+import se.lannstrom.chesssensei.model.IntMoveList;
+import se.lannstrom.chesssensei.model.PackedMove;
+import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
+import se.lannstrom.chesssensei.model.util.FENParser;
+import junit.framework.TestCase;
+
+public class PackedMoveTest extends TestCase {
+
+	private ChessRuleStrategy chessRuleStrategy;
+	private Board testBoard1;
+
+	BoardPosition e1 = new BoardPosition("E1");
+	BoardPosition b7 = new BoardPosition("B7");
+	BoardPosition a8 = new BoardPosition("A8");
+
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		chessRuleStrategy = new ChessRuleStrategy();
+		FENParser parser = new FENParser();
+		testBoard1 = parser.parse("r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1", new PrintWriter(System.out));
+	}
+
+	public void testRoundTrip() {
+		ChessMove m1 = new ChessMove(b7, a8, ChessColor.WHITE);
+		m1.setPromotion(PromotionPiece.KNIGHT);
+		int p1 = PackedMove.fromChessMove(m1);
+		assertTrue(PackedMove.getPromotion(p1) == PromotionPiece.KNIGHT);
+		ChessMove back = PackedMove.toChessMove(p1);
+		assertEquals(m1, back);
+		assertTrue(back.getPromotion() == PromotionPiece.KNIGHT);
+
+		int p2 = PackedMove.fromChessMove(new ChessMove(Castle.B_QUEENSIDE));
+		assertTrue(PackedMove.isCastle(p2));
+		assertTrue(PackedMove.getCastling(p2) == Castle.B_QUEENSIDE);
+		assertTrue(PackedMove.getColor(p2) == ChessColor.BLACK);
+	}
+
+	public void testGetValidMoves() {
+		IntMoveList list = new IntMoveList(1);
+		chessRuleStrategy.getValidMoves(testBoard1, e1, ChessColor.WHITE, list);
+		List<ChessMove> moves = chessRuleStrategy.getValidMoves(testBoard1, e1, ChessColor.WHITE);
+		assertTrue(list.size() == moves.size());
+
+		List<ChessMove> unpacked = new ArrayList<ChessMove>();
+		list.toChessMoves(unpacked);
+		assertEquals(moves, unpacked);
+	}
+
+}
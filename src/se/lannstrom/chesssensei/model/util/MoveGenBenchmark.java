@@ -0,0 +1,110 @@
+package se.lannstrom.chesssensei.model.util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.IntMoveList;
+import se.lannstrom.chesssensei.model.rules.BatchMoveCounter;
+import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
+
+/**
+ * Measures how fast all valid moves are generated into a reused
+ * {@link IntMoveList} and how much is allocated doing it. Also times
+ * counting the same positions with a {@link BatchMoveCounter}.
+ *
+ * Allocations are read from the JVM thread bean when it is available, i.e.
+ * when run on a desktop JVM, otherwise only the time is shown.
+ *
+ * @author x1x
+ *
+ */
+public class MoveGenBenchmark {
+	private static final String[] POSITIONS = {
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+	};
+
+	private static final int WARMUP = 20000;
+	private static final int ROUNDS = 200000;
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		FENParser parser = new FENParser();
+		ChessRuleStrategy crs = new ChessRuleStrategy();
+		IntMoveList moves = new IntMoveList();
+
+		Board[] boards = new Board[POSITIONS.length];
+		for (int i = 0; i < boards.length; i++) {
+			boards[i] = parser.parse(POSITIONS[i], new PrintWriter(System.out));
+		}
+
+		run(crs, boards, moves, WARMUP);
+
+		long bytesBefore = getAllocatedBytes();
+		long start = System.nanoTime();
+		long generated = run(crs, boards, moves, ROUNDS);
+		long time = System.nanoTime() - start;
+		long bytes = getAllocatedBytes() - bytesBefore;
+
+		long positions = (long) ROUNDS * boards.length;
+		System.out.println("Positions: " + positions + ", moves: " + generated);
+		System.out.println("ns per position: " + (time / positions));
+		System.out.println("Moves per second: " + (generated * 1000000000L / time));
+		if (bytesBefore >= 0) {
+			System.out.println("Bytes allocated per position: " + ((double) bytes / positions));
+			System.out.println("Bytes allocated per move: " + ((double) bytes / generated));
+		}
+
+		BatchMoveCounter batch = new BatchMoveCounter(boards.length);
+		for (int i = 0; i < boards.length; i++) {
+			batch.add(boards[i]);
+		}
+		runBatch(batch, WARMUP);
+		start = System.nanoTime();
+		long counted = runBatch(batch, ROUNDS);
+		time = System.nanoTime() - start;
+		System.out.println("Batch moves: " + counted + ", ns per position: " + (time / positions));
+	}
+
+	private static long runBatch(BatchMoveCounter batch, int rounds) {
+		long counted = 0;
+		for (int r = 0; r < rounds; r++) {
+			counted += batch.countAllMoves();
+		}
+		return counted;
+	}
+
+	private static long run(ChessRuleStrategy crs, Board[] boards, IntMoveList moves,
+							int rounds) {
+		long generated = 0;
+		for (int r = 0; r < rounds; r++) {
+			for (int i = 0; i < boards.length; i++) {
+				crs.getAllValidMoves(boards[i], moves);
+				generated += moves.size();
+			}
+		}
+		return generated;
+	}
+
+	/**
+	 * Bytes allocated by this thread so far or -1 if the JVM can't tell.
+	 * Looked up by reflection as java.lang.management is missing on Android.
+	 */
+	private static long getAllocatedBytes() {
+		try {
+			Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+			Object bean = factory.getMethod("getThreadMXBean").invoke(null);
+			Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+			Method m = type.getMethod("getThreadAllocatedBytes", long.class);
+			return (Long) m.invoke(bean, Thread.currentThread().getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+}
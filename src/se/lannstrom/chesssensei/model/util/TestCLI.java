@@ -77,7 +77,7 @@ public class TestCLI {
 			
 			String line = br.readLine();
 			try {
-				bp = new BoardPosition(line.trim());
+				bp = BoardPosition.get(line.trim());
 			} catch (IllegalArgumentException e) {
 				System.err.println("Error: " + e.getMessage());
 			}
@@ -0,0 +1,48 @@
+package se.lannstrom.chesssensei.tests;
+
+import java.io.PrintWriter;
+
+import se.lannstrom.chesssensei.SelectionDoneCallback;
+import se.lannstrom.chesssensei.SelectionManager;
+import se.lannstrom.chesssensei.model.Board;
+import se.lannstrom.chesssensei.model.BoardPosition;
+import se.lannstrom.chesssensei.model.Board.ChessColor;
+import se.lannstrom.chesssensei.model.rules.ChessRuleStrategy;
+import se.lannstrom.chesssensei.model.util.FENParser;
+import junit.framework.TestCase;
+
+public class SelectionManagerTest extends TestCase {
+
+	private SelectionManager selectionManager;
+	private boolean done;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		FENParser parser = new FENParser();
+		Board b = parser.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", new PrintWriter(System.out));
+
+		/* No view is needed unless a pawn promotes */
+		selectionManager = new SelectionManager(null, ChessColor.WHITE, b, new ChessRuleStrategy());
+		selectionManager.setDoneCallback(new SelectionDoneCallback() {
+			@Override
+			public void selectionDone() {
+				done = true;
+			}
+		});
+		selectionManager.reset();
+	}
+
+	public void testCastleTargets() {
+		/* The king on E1, G1 and C1 are castling */
+		selectionManager.select(4, 7);
+		assertTrue(selectionManager.isValidMove(6, 7));
+		assertTrue(selectionManager.isValidMove(2, 7));
+		assertTrue(selectionManager.isValidMove(5, 7));
+		assertFalse(selectionManager.isValidMove(7, 7));
+
+		selectionManager.select(6, 7);
+		assertTrue(done);
+		assertEquals(new BoardPosition("G1"), selectionManager.getTo());
+	}
+}